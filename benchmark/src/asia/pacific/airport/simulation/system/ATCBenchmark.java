@@ -0,0 +1,60 @@
+package asia.pacific.airport.simulation.system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * One full landing and take-off cycle through ATC: landing request and approval (runway and gate
+ * acquisition), completion (runway release through the completion callback), take-off request and
+ * approval (gate release) and completion.
+ * The controller drains its mailbox inline on the posting thread rather than on an engine event.
+ * ATC is single-writer, so every benchmark thread drives a controller, engine and airplane of its
+ * own; a thread sweep then shows how the cycle scales, not how a shared monitor is contended.
+ * The airplane reuses one activity record, as it does in the simulation.
+ */
+public class ATCBenchmark {
+    @State(Scope.Thread)
+    public static class ThreadATC {
+        @Param({"1", "4"})
+        public int runwayCount;
+
+        ATC atc;
+        Airplane airplane;
+        AirplaneActivity airplaneActivity;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SimulationConfig config = BenchmarkFixture.config(200, runwayCount);
+            SimulationEngine engine = BenchmarkFixture.engine();
+            atc = new ATC(engine, config, Runnable::run);
+            airplane = BenchmarkFixture.airplane(1, atc, null, engine, config);
+
+            // Settled up front so the first cycle can begin it like any later one.
+            airplaneActivity = new AirplaneActivity(AirplaneAction.TAKE_OFF, engine);
+            airplaneActivity.grantApproval(null);
+            airplaneActivity.completeAction(engine.now());
+            airplane.setCurrentActivity(airplaneActivity);
+        }
+    }
+
+    @Benchmark
+    public boolean landingAndTakeOffCycle(ThreadATC threadATC) {
+        ATC atc = threadATC.atc;
+        Airplane airplane = threadATC.airplane;
+        AirplaneActivity airplaneActivity = threadATC.airplaneActivity;
+
+        airplaneActivity.begin(AirplaneAction.LANDING, false);
+        atc.handleLandingRequest(airplane);
+        airplane.completeActivity();
+
+        airplaneActivity.begin(AirplaneAction.TAKE_OFF, false);
+        atc.handleTakeOffRequest(airplane);
+        boolean isApprovalGranted = airplaneActivity.isActionApprovalGranted();
+        airplane.completeActivity();
+        return isApprovalGranted;
+    }
+}
@@ -0,0 +1,50 @@
+package asia.pacific.airport.simulation.system;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Runs every benchmark once per contention level with the GC profiler attached, so each result
+ * row carries ops/s together with gc.alloc.rate.norm (bytes allocated per operation).
+ * Usage: java -jar benchmarks.jar [benchmark regex] [thread counts, e.g. 1,4,16,64]
+ */
+public class AirportBenchmarks {
+    private static final int[] DEFAULT_THREAD_COUNTS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        int[] threadCounts = args.length > 1 ? parseThreadCounts(args[1]) : DEFAULT_THREAD_COUNTS;
+
+        for (int threadCount : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threadCount)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(1))
+                    .timeUnit(TimeUnit.SECONDS)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.CSV)
+                    .result(String.format("benchmark-results-%02d-threads.csv", threadCount));
+            new Runner(options.build()).run();
+        }
+    }
+
+    private static int[] parseThreadCounts(String threadCounts) {
+        String[] values = threadCounts.split(",");
+        int[] parsedThreadCounts = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parsedThreadCounts[i] = Integer.parseInt(values[i].trim());
+        }
+        return parsedThreadCounts;
+    }
+}
@@ -0,0 +1,52 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.Properties;
+
+/*
+ * Builds simulation components for the benchmarks. Components share an engine that never runs and
+ * logs nothing, so no process ever sleeps and the measured paths contain only ATC, gate and
+ * refuel bookkeeping. Runway clearance timeouts are off, as their events would pile up unconsumed.
+ */
+final class BenchmarkFixture {
+    private BenchmarkFixture() {}
+
+    static SimulationConfig config(int gateCount, int runwayCount) {
+        return config(gateCount, runwayCount, 1);
+    }
+
+    static SimulationConfig config(int gateCount, int runwayCount, int refuelTruckCount) {
+        Properties properties = new Properties();
+        properties.setProperty(SimulationConfig.SIMULATION_SEED, "42");
+        properties.setProperty(SimulationConfig.GATE_COUNT, Integer.toString(gateCount));
+        properties.setProperty(SimulationConfig.RUNWAY_COUNT, Integer.toString(runwayCount));
+        properties.setProperty(SimulationConfig.REFUEL_TRUCK_COUNT, Integer.toString(refuelTruckCount));
+        properties.setProperty(SimulationConfig.RUNWAY_CLEARANCE_TIMEOUT, "0");
+        properties.setProperty(SimulationConfig.LOG_LEVEL, LogLevel.OFF.name());
+        return new SimulationConfig(properties);
+    }
+
+    static SimulationEngine engine() {
+        return new SimulationEngine(
+                SimulationMode.VIRTUAL,
+                ThreadMode.PLATFORM,
+                0,
+                SimulationLogger.disabled()
+        );
+    }
+
+    static Airplane airplane(
+            int id,
+            ATC atc,
+            RefuelDispatcher refuelDispatcher,
+            SimulationEngine engine,
+            SimulationConfig config
+    ) {
+        return new Airplane(
+                id,
+                new AirplaneStateStore(atc, refuelDispatcher, null, null, engine, config, id),
+                AircraftType.narrowBody(config),
+                new SimulationRandom(42, SimulationJournal.disabled()),
+                false
+        );
+    }
+}
@@ -0,0 +1,36 @@
+package asia.pacific.airport.simulation.system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Every benchmark thread is a requester that posts a command to one shared mailbox and waits for
+ * its reply, as an airplane waits for approval. The poster that finds the mailbox idle drains it,
+ * as the ATC controller does, so throughput is round-trip decisions per second made by a single
+ * consumer for all concurrent requesters.
+ */
+public class ControllerMailboxBenchmark {
+    @State(Scope.Benchmark)
+    public static class SharedMailbox {
+        final ControllerMailbox<Runnable> mailbox = new ControllerMailbox<>();
+        long decisionCount;
+    }
+
+    @State(Scope.Thread)
+    public static class Requester {
+        volatile long decision;
+    }
+
+    @Benchmark
+    public long requestDecision(SharedMailbox sharedMailbox, Requester requester) {
+        requester.decision = 0;
+        if (sharedMailbox.mailbox.post(() -> requester.decision = ++sharedMailbox.decisionCount)) {
+            sharedMailbox.mailbox.drain(Runnable::run);
+        }
+        while (requester.decision == 0) {
+            Thread.yield();
+        }
+        return requester.decision;
+    }
+}
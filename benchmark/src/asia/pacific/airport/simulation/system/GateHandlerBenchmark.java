@@ -0,0 +1,53 @@
+package asia.pacific.airport.simulation.system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+public class GateHandlerBenchmark {
+    @State(Scope.Benchmark)
+    public static class SharedGates {
+        @Param({"8", "200"})
+        public int gateCount;
+
+        SimulationConfig config;
+        SimulationEngine engine;
+        ATC atc;
+        GateHandler gateHandler;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            config = BenchmarkFixture.config(gateCount, 1);
+            engine = BenchmarkFixture.engine();
+            atc = new ATC(engine, config);
+            gateHandler = new GateHandler(engine, gateCount);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadAirplane {
+        Airplane airplane;
+
+        @Setup(Level.Trial)
+        public void setUp(SharedGates sharedGates, ThreadParams threadParams) {
+            airplane = BenchmarkFixture.airplane(
+                    threadParams.getThreadIndex() + 1,
+                    sharedGates.atc,
+                    null,
+                    sharedGates.engine,
+                    sharedGates.config
+            );
+        }
+    }
+
+    @Benchmark
+    public void acquireAndReleaseGate(SharedGates sharedGates, ThreadAirplane threadAirplane, Blackhole blackhole) {
+        blackhole.consume(sharedGates.gateHandler.acquireGate(threadAirplane.airplane));
+        sharedGates.gateHandler.releaseGate(threadAirplane.airplane);
+    }
+}
@@ -0,0 +1,47 @@
+package asia.pacific.airport.simulation.system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Dispatches a refuel request to the fleet and takes it off the selected truck again. The
+ * dispatcher is confined to the process holding the simulation engine, so every benchmark thread
+ * drives a dispatcher and fleet of its own rather than contending on a shared one.
+ */
+public class RefuelTruckBenchmark {
+    @State(Scope.Thread)
+    public static class ThreadRefuelDispatcher {
+        @Param({"1", "8"})
+        public int refuelTruckCount;
+
+        RefuelDispatcher refuelDispatcher;
+        Airplane airplane;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SimulationConfig config = BenchmarkFixture.config(200, 1, refuelTruckCount);
+            SimulationEngine engine = BenchmarkFixture.engine();
+            ATC atc = new ATC(engine, config);
+            refuelDispatcher = new RefuelDispatcher(atc, new FuelDepot(engine, config), engine, config);
+            airplane = BenchmarkFixture.airplane(1, atc, refuelDispatcher, engine, config);
+        }
+    }
+
+    @Benchmark
+    public RefuelRequest dispatchAndDequeueRequest(ThreadRefuelDispatcher threadRefuelDispatcher) {
+        RefuelDispatcher refuelDispatcher = threadRefuelDispatcher.refuelDispatcher;
+
+        refuelDispatcher.requestRefuel(threadRefuelDispatcher.airplane);
+        for (RefuelTruck refuelTruck : refuelDispatcher.getRefuelTrucks()) {
+            RefuelRequest refuelRequest = refuelTruck.pollRequest();
+            if (refuelRequest != null) {
+                return refuelRequest;
+            }
+        }
+        return null;
+    }
+}
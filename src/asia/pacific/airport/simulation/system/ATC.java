@@ -1,42 +1,151 @@
 package asia.pacific.airport.simulation.system;
 
-import java.util.PriorityQueue;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
-import static asia.pacific.airport.simulation.system.AsiaPacificAirportSimulationSystem.TOTAL_PLANES;
 import static java.util.Objects.isNull;
 
+/*
+ * Air traffic controller, run as a single-writer actor. Airplanes and runway completions post
+ * commands to an MPSC mailbox, and the controller drains it in batches on its own simulation
+ * event, so runway, gate and queue decisions are made one at a time without locks and never
+ * re-entrantly. Replies reach the airplanes through their activity approval futures.
+ */
 public class ATC implements Logging {
     private final static String ATC = "ATC";
-    private final Lock runwayLock;
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final RunwayScheduler runwayScheduler;
     private final GateHandler gateHandler;
-    private final PriorityBlockingQueue<Airplane> pendingAirplaneQueue;
-    private boolean pendingAirplaneQueueContainsTakeOff;
+    private final AirplaneSchedulingQueue pendingAirplaneQueue;
+    private final HoldingStack holdingStack;
     private final AtomicInteger totalAirplaneCycleCount;
+    private final AtomicInteger totalDiversionCount;
     private final AtomicInteger totalPassengerCycleCount;
-    private final CopyOnWriteArrayList<Long> waitingTimeList;
-
+    private final WaitingTimeRecorder waitingTimeRecorder;
+    private final ControllerMailbox<Runnable> mailbox;
+    private final Executor controllerActivation;
+    private final LongAdder queuedLandingCount;
+    private final LongAdder queuedTakeOffCount;
+    private final LongAdder queuedEmergencyCount;
+    private final LongAdder runwayWaitCount;
+    private final LongAdder runwayWaitTime;
+    private final Predicate<AircraftClass> isLandingAvailable;
+    private final Predicate<AircraftClass> isGateBlocked;
+    private RefuelDispatcher refuelDispatcher;
+    private TurnaroundExecutor turnaroundExecutor;
+    private int expectedAirplaneCount;
+    private boolean isReportEnabled;
+    private SimulationEvent holdingTick;
+    private long totalHoldingFuelBurn;
+
+    public ATC(SimulationEngine engine, SimulationConfig config) {
+        this(engine, config, controllerDrain -> engine.schedule(0, controllerDrain));
+    }
 
-    public ATC() {
-        runwayLock = new ReentrantLock(true);
-        gateHandler = new GateHandler();
-        pendingAirplaneQueue = new PriorityBlockingQueue<>();
+    ATC(SimulationEngine engine, SimulationConfig config, Executor controllerActivation) {
+        this.engine = engine;
+        this.config = config;
+        runwayScheduler = new RunwayScheduler(
+                config.getRunwayCount(),
+                config.getLandingOnlyRunwayCount(),
+                config.getTakeOffOnlyRunwayCount()
+        );
+        gateHandler = new GateHandler(engine, config.getGateCount(), config.getWideBodyGateCount());
+        pendingAirplaneQueue = new AirplaneSchedulingQueue();
+        isLandingAvailable = aircraftClass -> gateHandler.hasCompatibleGate(aircraftClass) &&
+                runwayScheduler.hasAvailableRunway(AirplaneAction.LANDING);
+        isGateBlocked = aircraftClass -> !gateHandler.hasCompatibleGate(aircraftClass);
+        holdingStack = new HoldingStack(
+                engine.getAirportTime().getStartTime(),
+                config.getHoldingBucketDuration(),
+                config.getMaximumHoldingFuelEndurance()
+        );
         totalAirplaneCycleCount = new AtomicInteger(0);
+        totalDiversionCount = new AtomicInteger(0);
         totalPassengerCycleCount = new AtomicInteger(0);
-        waitingTimeList = new CopyOnWriteArrayList<>();
+        waitingTimeRecorder = new WaitingTimeRecorder();
+        mailbox = new ControllerMailbox<>();
+        this.controllerActivation = controllerActivation;
+        expectedAirplaneCount = config.getAirplaneCount();
+        isReportEnabled = true;
+
+        MetricsRegistry metrics = engine.getMetrics();
+        queuedLandingCount = metrics.counter("atc.queue.landing");
+        queuedTakeOffCount = metrics.counter("atc.queue.take.off");
+        queuedEmergencyCount = metrics.counter("atc.queue.emergency");
+        runwayWaitCount = metrics.counter("runway.wait.count");
+        runwayWaitTime = metrics.counter("runway.wait.time");
+        metrics.gauge("gates.occupied", gateHandler::getOccupiedGateCount);
+        for (Runway runway : runwayScheduler.getRunways()) {
+            String runwayMetric = "runway." + runway.getId();
+            metrics.gauge(runwayMetric + ".occupied", () -> runway.isOccupied() ? 1 : 0);
+            metrics.gauge(runwayMetric + ".hold.time", runway::getTotalOccupiedTime);
+            metrics.gauge(runwayMetric + ".movements", runway::getMovementCount);
+        }
+        metrics.gauge("holding.stack", holdingStack::size);
+        metrics.gauge("airplanes.served", totalAirplaneCycleCount::get);
+        metrics.gauge("airplanes.diverted", totalDiversionCount::get);
+        metrics.gauge("passengers.served", totalPassengerCycleCount::get);
+        metrics.gauge("passengers.per.second", () -> {
+            long elapsedTime = engine.getAirportTime().getElapsedTime();
+            return elapsedTime > 0 ? totalPassengerCycleCount.get() * 1000.0 / elapsedTime : 0.0;
+        });
+    }
+
+    private LongAdder queueDepthOf(AirplaneActivity airplaneActivity) {
+        if (airplaneActivity.isEmergency()) {
+            return queuedEmergencyCount;
+        }
+        return airplaneActivity.getAction() == AirplaneAction.LANDING ? queuedLandingCount : queuedTakeOffCount;
+    }
+
+    private void post(Runnable command) {
+        if (mailbox.post(command)) {
+            controllerActivation.execute(this::processMailbox);
+        }
+    }
+
+    private void processMailbox() {
+        FlightRecorderEvents.ControllerBatch controllerBatchEvent = FlightRecorderEvents.controllerBatchStarted();
+        long processedCommandCount = mailbox.getProcessedCommandCount();
+        mailbox.drain(Runnable::run);
+        FlightRecorderEvents.controllerBatchFinished(
+                controllerBatchEvent,
+                mailbox.getProcessedCommandCount() - processedCommandCount,
+                engine.getAirportTime().getElapsedTime()
+        );
     }
 
     public GateHandler getGateHandler() {
         return gateHandler;
     }
 
+    public RunwayScheduler getRunwayScheduler() {
+        return runwayScheduler;
+    }
+
+    public HoldingStack getHoldingStack() {
+        return holdingStack;
+    }
+
+    /* Stays unbounded while a flight plan is being fed, as its length is only known at its end. */
+    public void setExpectedAirplaneCount(int expectedAirplaneCount) {
+        this.expectedAirplaneCount = expectedAirplaneCount;
+    }
+
+    public int getExpectedAirplaneCount() {
+        return expectedAirplaneCount;
+    }
+
+    /* Diverted airplanes count as served: they have left the airport's airspace for good. */
+    public boolean isAllAirplanesServed() {
+        return totalAirplaneCycleCount.get() + totalDiversionCount.get() == expectedAirplaneCount;
+    }
+
     public int getTotalAirplaneCycleCount() {
         return totalAirplaneCycleCount.get();
     }
@@ -45,15 +154,26 @@ public class ATC implements Logging {
         return totalPassengerCycleCount.get();
     }
 
+    public int getTotalDiversionCount() {
+        return totalDiversionCount.get();
+    }
+
+    public long getTotalHoldingFuelBurn() {
+        return totalHoldingFuelBurn;
+    }
+
     private void enqueueActivity(Airplane airplane) {
         AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
-        AirplaneAction airplaneAction = airplaneActivity.getAction();
 
         pendingAirplaneQueue.offer(airplane);
-
-        if(airplaneAction.equals(AirplaneAction.TAKE_OFF)) {
-            pendingAirplaneQueueContainsTakeOff = true;
-        }
+        queueDepthOf(airplaneActivity).increment();
+        FlightRecorderEvents.contention(
+                airplane,
+                runwayScheduler,
+                gateHandler,
+                pendingAirplaneQueue.size(),
+                engine.getAirportTime().getElapsedTime()
+        );
 
         logPendingAirplaneQueue();
 
@@ -66,34 +186,150 @@ public class ATC implements Logging {
                         "has been added to the"
         );
         log(enqueueActivityLoggingMessage);
+        recordDecision(airplane, "QUEUED");
+
+        if (
+            config.isHoldingModelled() &&
+            airplaneActivity.getAction() == AirplaneAction.LANDING &&
+            !holdingStack.contains(airplane)
+        ) {
+            enterHoldingStack(airplane);
+        }
     }
 
-    private void dequeueActivity() {
-        if(nextActivityIsLanding() && gateHandler.gateIsFull()) {
-            log("All gates are occupied at the moment, please wait in a circle queue.");
-            if (pendingAirplaneQueueContainsTakeOff) {
-                removeAirplaneUntilNextTakeOffAndReinsert();
-                logPendingAirplaneQueue();
-                dequeueActivity();
+    /* Fuel endurance counts from the landing request, which is when the airplane started circling. */
+    private void enterHoldingStack(Airplane airplane) {
+        AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
+        long fuelExhaustionTime = airplaneActivity.getActionRequestTime() + airplane.getHoldingFuelEndurance();
+        holdingStack.enter(
+                airplane,
+                engine.now(),
+                fuelExhaustionTime - config.getHoldingEmergencyReserve(),
+                fuelExhaustionTime - config.getHoldingDiversionReserve(),
+                airplaneActivity.isEmergency()
+        );
+
+        String holdingLoggingMessage = String.format(
+                "%s enters the holding stack with %.3fs of fuel, %d airplanes holding.",
+                airplane.getName(),
+                (fuelExhaustionTime - engine.now()) / 1000.0,
+                holdingStack.size()
+        );
+        log(holdingLoggingMessage);
+        scheduleHoldingTick();
+    }
+
+    /* Keeps one engine event pending at the end of the next holding bucket while anyone holds. */
+    private void scheduleHoldingTick() {
+        if (holdingStack.isEmpty()) {
+            if (!isNull(holdingTick)) {
+                holdingTick.cancel();
+                holdingTick = null;
             }
             return;
         }
 
-        Airplane nextAirplane;
-        AirplaneActivity nextAirplaneActivity;
-        AirplaneAction nextAirplaneAction;
+        long tickTime = holdingStack.getNextExpiryTime();
+        if (!isNull(holdingTick) && holdingTick.getTime() == tickTime) {
+            return;
+        }
+        if (!isNull(holdingTick)) {
+            holdingTick.cancel();
+        }
+        holdingTick = engine.schedule(
+                Math.max(0, tickTime - engine.now()),
+                () -> post(this::expireHoldingDeadlines)
+        );
+    }
+
+    private void expireHoldingDeadlines() {
+        holdingStack.expire(engine.now(), this::declareFuelEmergency, this::divert);
+        scheduleHoldingTick();
+    }
 
-        try {
-            nextAirplane = pendingAirplaneQueue.take();
-            nextAirplaneActivity = nextAirplane.getCurrentActivity();
-            nextAirplaneAction = nextAirplaneActivity.getAction();
+    private void declareFuelEmergency(Airplane airplane) {
+        AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
+        pendingAirplaneQueue.remove(airplane);
+        queueDepthOf(airplaneActivity).decrement();
+        airplaneActivity.setEmergency(true);
+        pendingAirplaneQueue.offer(airplane);
+        queueDepthOf(airplaneActivity).increment();
 
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        String fuelEmergencyLoggingMessage = String.format(
+                "%s is low on fuel after holding for %.3fs, declares an emergency and is offered first place in the landing queue.",
+                airplane.getName(),
+                (engine.now() - airplaneActivity.getActionRequestTime()) / 1000.0
+        );
+        log(LogLevel.WARN, fuelEmergencyLoggingMessage);
+        recordDecision(airplane, "FUEL EMERGENCY");
+        engine.getEventJournal().record(
+                engine.getAirportTime().getElapsedTime(),
+                airplane,
+                FlightEventType.FUEL_EMERGENCY,
+                0,
+                (int) (engine.now() - airplaneActivity.getActionRequestTime())
+        );
+    }
+
+    private void divert(Airplane airplane) {
+        AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
+        pendingAirplaneQueue.remove(airplane);
+        queueDepthOf(airplaneActivity).decrement();
+
+        String diversionLoggingMessage = String.format(
+                "%s has reached its diversion fuel and is cleared to divert, %d airplanes holding.",
+                airplane.getName(),
+                holdingStack.size()
+        );
+        log(LogLevel.WARN, diversionLoggingMessage);
+        recordDecision(airplane, "DIVERTED");
+        airplaneActivity.divert(engine.now());
+    }
+
+    /* Burns fuel for the time an airplane spent holding and takes it out of the holding stack. */
+    private void leaveHoldingStack(Airplane airplane) {
+        if (!holdingStack.leave(airplane)) {
+            return;
         }
+        long holdingTime = engine.now() - airplane.getCurrentActivity().getActionRequestTime();
+        long holdingFuelBurn = config.getHoldingFuelBurnRate() * holdingTime / 1000;
+        airplane.addFuelDemand(holdingFuelBurn);
+        totalHoldingFuelBurn += holdingFuelBurn;
+        scheduleHoldingTick();
+    }
+
+    private boolean dequeueActivity() {
+        boolean isTakeOffAvailable = runwayScheduler.hasAvailableRunway(AirplaneAction.TAKE_OFF);
+
+        Airplane nextAirplane = pendingAirplaneQueue.poll(isLandingAvailable, isTakeOffAvailable);
+        if (isNull(nextAirplane)) {
+            Airplane blockedLanding = pendingAirplaneQueue.peekLanding(isGateBlocked);
+            if (!isNull(blockedLanding)) {
+                logGatesOccupied(blockedLanding);
+            }
+            return false;
+        }
+        queueDepthOf(nextAirplane.getCurrentActivity()).decrement();
+
+        AirplaneActivity nextAirplaneActivity = nextAirplane.getCurrentActivity();
+        AirplaneAction nextAirplaneAction = nextAirplaneActivity.getAction();
 
         logPendingAirplaneQueue();
 
+        Airplane nextLanding = pendingAirplaneQueue.peekLanding();
+        if (
+            nextAirplaneAction.equals(AirplaneAction.TAKE_OFF) &&
+            !isNull(nextLanding) &&
+            pendingAirplaneQueue.getQueuedRequestTime(nextLanding) < nextAirplaneActivity.getActionRequestTime()
+        ) {
+            String nextTakeOffCutsQueueLoggingMessage = String.format(
+                    "%s (%s) cuts queue and has been offered first place in the activity queue.",
+                    nextAirplane.getName(),
+                    nextAirplaneActivity.getName()
+            );
+            log(nextTakeOffCutsQueueLoggingMessage);
+        }
+
         String dequeueLandingLoggingMessage = String.format(
                 "%s is ready to be %s.",
                 nextAirplane.getName(),
@@ -109,55 +345,44 @@ public class ATC implements Logging {
         } else {
             sendTakeOffApproval(nextAirplane);
         }
+        return true;
     }
 
-    private void removeAirplaneUntilNextTakeOffAndReinsert() {
-        PriorityQueue<Airplane> tempAirplaneQueue = new PriorityQueue<>();
-        Airplane airplane = null;
+    private boolean pendingActivityPresent() {
+        return !pendingAirplaneQueue.isEmpty();
+    }
 
-        while (!pendingAirplaneQueue.isEmpty()) {
-            airplane = pendingAirplaneQueue.peek();
-            if (airplane.getCurrentActivity().getAction().equals(AirplaneAction.TAKE_OFF)) {
-                break;
-            }
-            tempAirplaneQueue.offer(pendingAirplaneQueue.poll());
-        }
+    /* True when a queued landing has no free gate it fits, whatever the other classes hold. */
+    private boolean pendingLandingBlockedByGates() {
+        return !isNull(pendingAirplaneQueue.peekLanding(isGateBlocked));
+    }
 
-        while (!tempAirplaneQueue.isEmpty()) {
-            pendingAirplaneQueue.offer(tempAirplaneQueue.poll());
+    /* Serves queued airplanes until the head of every lane that could go is waiting on a runway or gate. */
+    private void dispatchPendingActivities() {
+        boolean isDispatched = true;
+        while (isDispatched && pendingActivityPresent()) {
+            isDispatched = dequeueActivity();
         }
+    }
 
-        if (!isNull(airplane)) {
-            String nextTakeOffCutsQueueLoggingMessage = String.format(
-                    "%s (%s) cuts queue and has been offered first place in the activity queue.",
-                    airplane.getName(),
-                    airplane.getCurrentActivity().getName()
+    private void logGatesOccupied(Airplane airplane) {
+        if (airplane.getAircraftClass() == AircraftClass.NARROW_BODY) {
+            log("All gates are occupied at the moment, please wait in a circle queue.");
+        } else {
+            String gatesOccupiedLoggingMessage = String.format(
+                    "All %s gates are occupied at the moment, %s please wait in a circle queue.",
+                    airplane.getAircraftClass().getDescription(),
+                    airplane.getName()
             );
-            log(nextTakeOffCutsQueueLoggingMessage);
+            log(gatesOccupiedLoggingMessage);
         }
     }
 
-    private boolean pendingActivityPresent() {
-        return pendingAirplaneQueue.size() > 0;
-    }
-
-    private boolean nextActivityIsLanding() {
-        return pendingAirplaneQueue.size() > 0 &&
-                pendingAirplaneQueue.peek()
-                        .getCurrentActivity()
-                        .getAction()
-                        .equals(AirplaneAction.LANDING);
-    }
-
-    public boolean nextActivityIsTakeOff() {
-        return pendingAirplaneQueue.size() > 0 &&
-                pendingAirplaneQueue.peek()
-                        .getCurrentActivity()
-                        .getAction()
-                        .equals(AirplaneAction.TAKE_OFF);
+    public void handleLandingRequest(Airplane airplane) {
+        post(() -> processLandingRequest(airplane));
     }
 
-    public void handleLandingRequest(Airplane airplane) {
+    private void processLandingRequest(Airplane airplane) {
         String landingRequestLoggingMessage = String.format(
                 "%s %slanding request received. Checking for gate availability.",
                 airplane.getName(),
@@ -165,32 +390,35 @@ public class ATC implements Logging {
         );
         log(landingRequestLoggingMessage);
 
-        if (gateHandler.gateIsSufficient()) {
-            if (pendingActivityPresent()) {
-                log("Pending activity is present, please wait in a circle queue.");
-            } else {
-                sendLandingApproval(airplane);
-                return;
+        if (!gateHandler.hasCompatibleGate(airplane.getAircraftClass())) {
+            logGatesOccupied(airplane);
+            enqueueActivity(airplane);
+        } else if (pendingActivityPresent()) {
+            log("Pending activity is present, please wait in a circle queue.");
+            enqueueActivity(airplane);
+            if (isLandingAvailable.test(airplane.getAircraftClass())) {
+                // The queue ahead is waiting on gates of another class or on take-off runways.
+                dispatchPendingActivities();
             }
         } else {
-            log("All gates are occupied at the moment, please wait in a circle queue.");
+            sendLandingApproval(airplane);
         }
-
-        enqueueActivity(airplane);
     }
 
     private void sendLandingApproval(Airplane airplane) {
-        if (runwayLock.tryLock()) {
+        Runway runway = runwayScheduler.acquireRunway(airplane, AirplaneAction.LANDING, engine.now());
+        if (runway != null) {
+            leaveHoldingStack(airplane);
             int gateId = gateHandler.acquireGate(airplane);
 
             String landingApprovalLoggingMessage = String.format(
-                    "%s landing approval granted. Please proceed to Gate %d.",
+                    "%s landing approval granted on %s. Please proceed to Gate %d.",
                     airplane.getName(),
+                    runway.getName(),
                     gateId
             );
             log(landingApprovalLoggingMessage);
-            airplane.setActivityApprovalGranted(true);
-            runwayLock.unlock();
+            grantApproval(airplane, runway);
         } else {
             log("Runway is occupied at the moment, please wait in a circle queue.");
             enqueueActivity(airplane);
@@ -198,13 +426,17 @@ public class ATC implements Logging {
     }
 
     public void handleTakeOffRequest(Airplane airplane) {
+        post(() -> processTakeOffRequest(airplane));
+    }
+
+    private void processTakeOffRequest(Airplane airplane) {
         String takeOffRequestLoggingMessage = String.format(
                 "%s take off request received.",
                 airplane.getName()
         );
         log(takeOffRequestLoggingMessage);
 
-        if (gateHandler.gateIsFull() && nextActivityIsLanding()) {
+        if (pendingLandingBlockedByGates()) {
             airplane.setActivityEmergency(true);
         } else if (pendingActivityPresent()) {
             log("Pending activity is present, please wait at the gate.");
@@ -216,16 +448,17 @@ public class ATC implements Logging {
     }
 
     private void sendTakeOffApproval(Airplane airplane) {
-        if (runwayLock.tryLock()) {
+        Runway runway = runwayScheduler.acquireRunway(airplane, AirplaneAction.TAKE_OFF, engine.now());
+        if (runway != null) {
             String takeOffApprovalLoggingMessage = String.format(
-                    "%s take off approval granted. Please proceed to runway.",
-                    airplane.getName()
+                    "%s take off approval granted. Please proceed to %s.",
+                    airplane.getName(),
+                    runway.getName()
             );
             log(takeOffApprovalLoggingMessage);
             gateHandler.releaseGate(airplane);
 
-            airplane.setActivityApprovalGranted(true);
-            runwayLock.unlock();
+            grantApproval(airplane, runway);
         } else {
             log("Runway is occupied at the moment, please wait at the gate.");
             enqueueActivity(airplane);
@@ -233,66 +466,157 @@ public class ATC implements Logging {
     }
 
     public void handlePreTrafficActivity(Airplane airplane) {
-        runwayLock.lock();
         String preTrafficActivityLoggingMessage = String.format(
-                "Runway is now locked for %s.",
+                "%s is now locked for %s.",
+                airplane.getCurrentActivity().getRunway().getName(),
                 airplane.getCurrentActivityName()
         );
         log(preTrafficActivityLoggingMessage);
     }
 
-    public void handlePostTrafficActivity(Airplane airplane) {
-        airplane.getCurrentActivity().waitForActionCompletion();
-        runwayLock.unlock();
-        log("Runway is now available.");
-        if (pendingAirplaneQueue.size() > 0) {
-            dequeueActivity();
+    private void grantApproval(Airplane airplane, Runway runway) {
+        AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
+        recordDecision(airplane, "APPROVED " + runway.getName() + (
+                airplaneActivity.getAction() == AirplaneAction.LANDING ?
+                        " Gate " + airplane.getAssignedGateId() : ""
+        ));
+        FlightRecorderEvents.approval(
+                airplane,
+                runway,
+                engine.now() - airplaneActivity.getActionRequestTime(),
+                engine.getAirportTime().getElapsedTime()
+        );
+        airplaneActivity.getCompletion()
+                .withTimeout(config.getRunwayClearanceTimeout())
+                .onComplete((completionTime, failure) ->
+                        post(() -> handlePostTrafficActivity(airplane, runway, failure))
+                );
+        airplaneActivity.grantApproval(runway);
+    }
+
+    private void recordDecision(Airplane airplane, String decision) {
+        SimulationJournal journal = engine.getJournal();
+        if (journal.isEnabled()) {
+            journal.decision(
+                    engine.getAirportTime().getElapsedTime(),
+                    airplane.getName() + " " + airplane.getCurrentActivity().getAction() + " " + decision
+            );
+        }
+    }
+
+    private void handlePostTrafficActivity(Airplane airplane, Runway runway, Throwable failure) {
+        if (!isNull(failure)) {
+            String clearanceTimeoutLoggingMessage = String.format(
+                    "%s has not cleared %s. %s Releasing the runway.",
+                    airplane.getName(),
+                    runway.getName(),
+                    failure.getMessage()
+            );
+            log(LogLevel.WARN, clearanceTimeoutLoggingMessage);
         }
+        runwayScheduler.releaseRunway(runway, engine.now());
+        log(String.format("%s is now available.", runway.getName()));
+        dispatchPendingActivities();
     }
 
     private void logPendingAirplaneQueue() {
         String pendingAirplaneQueueLoggingMessage = String.format(
-                "Airplane Queue: [%s]",
-                pendingAirplaneQueue.stream()
-                        .map(Airplane::getCurrentActivityName)
-                        .collect(Collectors.joining(", "))
+                "Airplane Queue: %d pending (%d emergency, %d take off, %d landing).",
+                pendingAirplaneQueue.size(),
+                pendingAirplaneQueue.getEmergencyCount(),
+                pendingAirplaneQueue.getTakeOffCount(),
+                pendingAirplaneQueue.getLandingCount()
         );
         log(pendingAirplaneQueueLoggingMessage);
     }
 
-    public void passengerIncrement() {
-        totalPassengerCycleCount.getAndIncrement();
+    public void passengerIncrement(int passengerCount) {
+        totalPassengerCycleCount.getAndAdd(passengerCount);
     }
 
     public void airplaneIncrement(){
         totalAirplaneCycleCount.getAndIncrement();
-        if (totalAirplaneCycleCount.get() == TOTAL_PLANES){
-            sanityCheck();
-            statistics();
+        reportIfAllAirplanesServed();
+    }
+
+    public void airplaneDiverted() {
+        totalDiversionCount.getAndIncrement();
+        reportIfAllAirplanesServed();
+    }
+
+    private void reportIfAllAirplanesServed() {
+        if (isAllAirplanesServed() && isReportEnabled){
+            printReport();
         }
     }
 
-    public void addWaitingTime(long waitingTime){
-        waitingTimeList.add(waitingTime);
+    /* Prints the gate status and statistics; also used for a run that stalled before serving everyone. */
+    public void printReport() {
+        engine.getLogger().flush();
+        sanityCheck();
+        statistics();
+    }
+
+    public void setReportEnabled(boolean isReportEnabled) {
+        this.isReportEnabled = isReportEnabled;
+    }
+
+    public void setRefuelDispatcher(RefuelDispatcher refuelDispatcher) {
+        this.refuelDispatcher = refuelDispatcher;
+    }
+
+    public void setTurnaroundExecutor(TurnaroundExecutor turnaroundExecutor) {
+        this.turnaroundExecutor = turnaroundExecutor;
+    }
+
+    public WaitingTimeRecorder getWaitingTimeRecorder() {
+        return waitingTimeRecorder;
+    }
+
+    public void addWaitingTime(AirplaneActivity airplaneActivity, long waitingTime){
+        waitingTimeRecorder.record(airplaneActivity.getAction(), airplaneActivity.isEmergency(), waitingTime);
+        runwayWaitCount.increment();
+        runwayWaitTime.add(waitingTime);
     }
 
     private void printWaitingTimeStatistics(){
-        long min = Long.MAX_VALUE;
-        long max = Long.MIN_VALUE;
-        long sum = 0;
-
-        for (Long number : waitingTimeList) {
-            min = Math.min(min, number);
-            max = Math.max(max, number);
-            sum += number;
-        }
+        LatencyHistogram.Snapshot landingWaitingTime = waitingTimeRecorder.snapshot(AirplaneAction.LANDING);
 
-        double average = (double) sum / waitingTimeList.size();
+        System.out.printf("Minimum waiting time\t\t: %.3fs\n", landingWaitingTime.getMinimum() / 1000.0);
+        System.out.printf("Maximum waiting time\t\t: %.3fs\n", landingWaitingTime.getMaximum() / 1000.0);
+        System.out.printf("Average waiting time\t\t: %.3fs\n", landingWaitingTime.getMean() / 1000.0);
+        System.out.printf("Total waiting time\t\t\t: %.3fs\n", landingWaitingTime.getTotal() / 1000.0);
 
-        System.out.printf("Minimum waiting time\t\t: %.3fs\n", (double) min);
-        System.out.printf("Maximum waiting time\t\t: %.3fs\n", (double) max);
-        System.out.printf("Average waiting time\t\t: %.3fs\n", average);
-        System.out.printf("Total waiting time\t\t\t: %.3fs\n", (double) sum);
+        System.out.println();
+        System.out.printf(
+                "%-22s %8s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Waiting time (s)", "count", "min", "avg", "p50", "p90", "p99", "p99.9", "max"
+        );
+        for (AirplaneAction action : AirplaneAction.values()) {
+            for (boolean isEmergency : new boolean[] {false, true}) {
+                printWaitingTimeDistribution(action, isEmergency, waitingTimeRecorder.snapshot(action, isEmergency));
+            }
+        }
+        System.out.println();
+    }
+
+    private void printWaitingTimeDistribution(
+            AirplaneAction action,
+            boolean isEmergency,
+            LatencyHistogram.Snapshot waitingTime
+    ) {
+        System.out.printf(
+                "%-22s %8d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                String.format("%s%s", action == AirplaneAction.LANDING ? "Landing" : "Take Off", isEmergency ? " (emergency)" : ""),
+                waitingTime.getCount(),
+                waitingTime.getMinimum() / 1000.0,
+                waitingTime.getMean() / 1000.0,
+                waitingTime.getValueAtPercentile(50) / 1000.0,
+                waitingTime.getValueAtPercentile(90) / 1000.0,
+                waitingTime.getValueAtPercentile(99) / 1000.0,
+                waitingTime.getValueAtPercentile(99.9) / 1000.0,
+                waitingTime.getMaximum() / 1000.0
+        );
     }
 
     private void sanityCheck(){
@@ -302,7 +626,14 @@ public class ATC implements Logging {
         AtomicReferenceArray<Gate> gates = gateHandler.getGates();
         for (int i = 0; i < gates.length(); i++) {
             Gate gate = gates.get(i);
-            System.out.printf("%s: %s.\n", gate.getName(), gate.isOccupied() ? "Occupied" : "Empty");
+            System.out.printf(
+                    "%s%s: %s.\n",
+                    gate.getName(),
+                    gate.getAircraftClass() == AircraftClass.NARROW_BODY ?
+                            "" :
+                            " (" + gate.getAircraftClass().getDescription() + ")",
+                    gate.isOccupied() ? "Occupied" : "Empty"
+            );
         }
     }
 
@@ -316,15 +647,81 @@ public class ATC implements Logging {
 
         System.out.printf("Number of planes served\t\t: %d%n", totalAirplaneCycleCount.get());
         System.out.printf("Number of passengers served\t: %d%n", totalPassengerCycleCount.get());
+
+        printHoldingStatistics();
+        printRunwayStatistics();
+        printControllerStatistics();
+        if (!isNull(refuelDispatcher)) {
+            refuelDispatcher.printStatistics();
+        }
+        if (!isNull(turnaroundExecutor)) {
+            turnaroundExecutor.printStatistics();
+        }
     }
 
-    @Override
-    public void log(String loggingMessage) {
+    private void printHoldingStatistics() {
+        if (!config.isHoldingModelled()) {
+            return;
+        }
         System.out.printf(
-                "%s %s: %s%n",
-                AirportTime.getCurrentTimestamp(),
-                ATC,
-                loggingMessage
+                "Holding stack\t\t\t: %d held (at most %d at once), %d fuel emergencies, %d diverted%n",
+                holdingStack.getEnteredCount(),
+                holdingStack.getMaximumSize(),
+                holdingStack.getFuelEmergencyCount(),
+                totalDiversionCount.get()
         );
+        if (config.getHoldingFuelBurnRate() > 0) {
+            System.out.printf("Holding fuel burnt\t\t: %d litres%n", totalHoldingFuelBurn);
+        }
+    }
+
+    private void printRunwayStatistics() {
+        double elapsedHours = engine.getAirportTime().getElapsedTime() / 3_600_000.0;
+        int totalMovementCount = 0;
+
+        for (Runway runway : runwayScheduler.getRunways()) {
+            totalMovementCount += runway.getMovementCount();
+            System.out.printf(
+                    "%s (%s)\t\t: %d landings, %d take-offs, %.1f%% utilisation, %.1f movements/hour%n",
+                    runway.getName(),
+                    runway.getType(),
+                    runway.getLandingCount(),
+                    runway.getTakeOffCount(),
+                    elapsedHours > 0 ? 100.0 * runway.getTotalOccupiedTime() / engine.getAirportTime().getElapsedTime() : 0.0,
+                    elapsedHours > 0 ? runway.getMovementCount() / elapsedHours : 0.0
+            );
+        }
+
+        System.out.printf(
+                "Total runway movements\t\t: %d (%.1f movements/hour)%n",
+                totalMovementCount,
+                elapsedHours > 0 ? totalMovementCount / elapsedHours : 0.0
+        );
+    }
+
+    private void printControllerStatistics() {
+        long processedCommandCount = mailbox.getProcessedCommandCount();
+        long batchCount = mailbox.getBatchCount();
+
+        System.out.printf(
+                "ATC decisions\t\t\t: %d in %d batches (%.2f per batch)%n",
+                processedCommandCount,
+                batchCount,
+                batchCount > 0 ? (double) processedCommandCount / batchCount : 0.0
+        );
+    }
+
+    /* Wall-clock rate, so it is kept out of the statistics that must match between runs of a seed. */
+    public void printThroughput() {
+        long processingTime = mailbox.getProcessingTime();
+        System.out.printf(
+                "ATC throughput: %.0f decisions/s%n",
+                processingTime > 0 ? mailbox.getProcessedCommandCount() * 1_000_000_000.0 / processingTime : 0.0
+        );
+    }
+
+    @Override
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, ATC, loggingMessage);
     }
 }
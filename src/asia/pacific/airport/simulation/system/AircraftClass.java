@@ -0,0 +1,21 @@
+package asia.pacific.airport.simulation.system;
+
+/* Aircraft size class, ordered from smallest to largest; a gate takes its own class and smaller. */
+public enum AircraftClass {
+    NARROW_BODY("narrow-body"),
+    WIDE_BODY("wide-body");
+
+    private final String description;
+
+    AircraftClass(String description) {
+        this.description = description;
+    }
+
+    public boolean fits(AircraftClass gateClass) {
+        return compareTo(gateClass) <= 0;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,77 @@
+package asia.pacific.airport.simulation.system;
+
+/*
+ * Seat range, fuel demand range and turnaround profile of one aircraft type. The turnaround
+ * factor scales the cleaning, catering and baggage durations; boarding and refuelling already
+ * scale with the passenger count and fuel demand.
+ */
+public class AircraftType {
+    private final AircraftClass aircraftClass;
+    private final int minimumPassengerCount;
+    private final int maximumPassengerCount;
+    private final long minimumFuelDemand;
+    private final long maximumFuelDemand;
+    private final double turnaroundFactor;
+
+    public AircraftType(
+            AircraftClass aircraftClass,
+            int minimumPassengerCount,
+            int maximumPassengerCount,
+            long minimumFuelDemand,
+            long maximumFuelDemand,
+            double turnaroundFactor
+    ) {
+        this.aircraftClass = aircraftClass;
+        this.minimumPassengerCount = minimumPassengerCount;
+        this.maximumPassengerCount = maximumPassengerCount;
+        this.minimumFuelDemand = minimumFuelDemand;
+        this.maximumFuelDemand = maximumFuelDemand;
+        this.turnaroundFactor = turnaroundFactor;
+    }
+
+    public static AircraftType narrowBody(SimulationConfig config) {
+        return new AircraftType(
+                AircraftClass.NARROW_BODY,
+                config.getMinimumPassengerCount(),
+                config.getMaximumPassengerCount(),
+                config.getMinimumFuelDemand(),
+                config.getMaximumFuelDemand(),
+                1.0
+        );
+    }
+
+    public static AircraftType wideBody(SimulationConfig config) {
+        return new AircraftType(
+                AircraftClass.WIDE_BODY,
+                config.getMinimumWideBodyPassengerCount(),
+                config.getMaximumWideBodyPassengerCount(),
+                config.getMinimumWideBodyFuelDemand(),
+                config.getMaximumWideBodyFuelDemand(),
+                config.getWideBodyTurnaroundFactor()
+        );
+    }
+
+    public AircraftClass getAircraftClass() {
+        return aircraftClass;
+    }
+
+    public int getMinimumPassengerCount() {
+        return minimumPassengerCount;
+    }
+
+    public int getMaximumPassengerCount() {
+        return maximumPassengerCount;
+    }
+
+    public long getMinimumFuelDemand() {
+        return minimumFuelDemand;
+    }
+
+    public long getMaximumFuelDemand() {
+        return maximumFuelDemand;
+    }
+
+    public long scaleTurnaroundDuration(long duration) {
+        return turnaroundFactor == 1.0 ? duration : Math.round(duration * turnaroundFactor);
+    }
+}
@@ -1,64 +1,118 @@
 package asia.pacific.airport.simulation.system;
 
-import java.util.Random;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-
-public class Airplane implements Runnable, Logging, Comparable<Airplane> {
-    private static final int MAX_PASSENGER_COUNT = 50;
-    private static final int MIN_PASSENGER_COUNT = 15;
-    private static int airplaneCount = 0;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Thin view over one flight of an AirplaneStateStore, alive only while the flight is active. Its
+ * state lives in the store; the view holds what a running process needs on top of it: the name,
+ * the random stream, the current activity and the refuelling future.
+ */
+public class Airplane implements Runnable, Logging {
     private final int id;
-    private final ATC atc;
-    private final RefuelTruck refuelTruck;
+    private final String name;
+    private final AirplaneStateStore store;
+    private final SimulationEngine engine;
+    private final SimulationRandom random;
     private AirplaneActivity currentActivity;
-    private boolean isRefueled;
-    private final Object refuelingLock;
-    private int passengerCount;
-    private CountDownLatch boardingLatch;
-    private final AtomicInteger passengerCompleted;
-    private final Random random;
-
-    public Airplane(ATC atc, RefuelTruck refuelTruck) {
-        airplaneCount++;
-        id = airplaneCount;
-        this.atc = atc;
-        this.refuelTruck = refuelTruck;
-        isRefueled = false;
-        refuelingLock = new Object();
-        random = new Random();
-        passengerCount = random.nextInt(MAX_PASSENGER_COUNT - MIN_PASSENGER_COUNT + 1) + MIN_PASSENGER_COUNT;
-        boardingLatch = new CountDownLatch(passengerCount);
-        passengerCompleted = new AtomicInteger(0);
+    private CompletableFuture<Void> refueling;
+
+    public Airplane(
+            int id,
+            AirplaneStateStore store,
+            AircraftType aircraftType,
+            SimulationRandom random,
+            boolean isEmergency
+    ) {
+        this(id, store, aircraftType, random, nextPassengerCount(aircraftType, random), isEmergency);
+    }
+
+    public Airplane(
+            int id,
+            AirplaneStateStore store,
+            AircraftType aircraftType,
+            SimulationRandom random,
+            int passengerCount,
+            boolean isEmergency
+    ) {
+        this.id = id;
+        name = "Airplane " + id;
+        this.store = store;
+        engine = store.getEngine();
+        this.random = random;
+        store.register(
+                id,
+                aircraftType.getAircraftClass(),
+                passengerCount,
+                nextFuelDemand(aircraftType, random),
+                nextHoldingFuelEndurance(store.getConfig(), random),
+                isEmergency
+        );
+    }
+
+    private static int nextPassengerCount(AircraftType aircraftType, SimulationRandom random) {
+        return random.nextInt(
+                "passengers",
+                aircraftType.getMinimumPassengerCount(),
+                aircraftType.getMaximumPassengerCount() + 1
+        );
+    }
+
+    private static long nextFuelDemand(AircraftType aircraftType, SimulationRandom random) {
+        if (aircraftType.getMinimumFuelDemand() == aircraftType.getMaximumFuelDemand()) {
+            return aircraftType.getMinimumFuelDemand();
+        }
+        return random.nextLong("fuel", aircraftType.getMinimumFuelDemand(), aircraftType.getMaximumFuelDemand() + 1);
+    }
+
+    private static int nextHoldingFuelEndurance(SimulationConfig config, SimulationRandom random) {
+        if (config.getMinimumHoldingFuelEndurance() == config.getMaximumHoldingFuelEndurance()) {
+            return config.getMinimumHoldingFuelEndurance();
+        }
+        return (int) random.nextLong(
+                "endurance",
+                config.getMinimumHoldingFuelEndurance(),
+                config.getMaximumHoldingFuelEndurance() + 1L
+        );
+    }
+
+    public int getId() {
+        return id;
     }
 
     public String getName() {
-        return String.format("Airplane %d", this.id);
+        return name;
+    }
+
+    public AircraftType getAircraftType() {
+        return store.getAircraftType(id);
+    }
+
+    public AircraftClass getAircraftClass() {
+        return getAircraftType().getAircraftClass();
+    }
+
+    public int getAssignedGateId() {
+        return store.getAssignedGateId(id);
+    }
+
+    public void setAssignedGateId(int assignedGateId) {
+        store.setAssignedGateId(id, assignedGateId);
     }
 
     public AirplaneActivity getCurrentActivity() {
         return currentActivity;
     }
 
-    public void setActivityEmergency(boolean isEmergency) {
-        currentActivity.setEmergency(isEmergency);
+    void setCurrentActivity(AirplaneActivity currentActivity) {
+        this.currentActivity = currentActivity;
     }
 
-    public void setActivityApprovalGranted(boolean isApprovalGranted) {
-        synchronized (currentActivity.getActionApprovalLock()) {
-            currentActivity.setActionApprovalGranted(isApprovalGranted);
-            currentActivity.getActionApprovalLock().notifyAll();
-        }
+    public void setActivityEmergency(boolean isEmergency) {
+        currentActivity.setEmergency(isEmergency);
     }
 
-    public void setActivityCompletion(boolean isCompleted) {
-        synchronized (currentActivity.getActionCompletionLock()) {
-            currentActivity.setActionCompleted(isCompleted);
-            currentActivity.getActionCompletionLock().notifyAll();
-        }
+    public void completeActivity() {
+        currentActivity.completeAction(engine.now());
     }
 
     public String getCurrentActivityName() {
@@ -69,144 +123,148 @@ public class Airplane implements Runnable, Logging, Comparable<Airplane> {
         );
     }
 
-    public boolean isRefueled() {
-        synchronized (refuelingLock) {
-            return isRefueled;
-        }
+    public int getPassengerCount() {
+        return store.getPassengerCount(id);
     }
 
-    public void setRefueled(boolean isRefueled) {
-        synchronized (refuelingLock) {
-            this.isRefueled = isRefueled;
-            refuelingLock.notifyAll();
-        }
+    public long getFuelDemand() {
+        return store.getFuelDemand(id);
     }
 
-    private void waitForRefueling() {
-        synchronized (refuelingLock) {
-            while (!isRefueled) {
-                try {
-                    refuelingLock.wait();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+    /* Adds fuel burnt while holding to what the airplane needs at the gate. */
+    void addFuelDemand(long fuel) {
+        store.addFuelDemand(id, fuel);
+    }
+
+    public int getHoldingFuelEndurance() {
+        return store.getHoldingFuelEndurance(id);
+    }
+
+    public boolean isRefueled() {
+        return store.isRefueled(id);
+    }
+
+    public void setRefueled(boolean isRefueled) {
+        store.setRefueled(id, isRefueled);
+        if (isRefueled && refueling != null) {
+            refueling.complete(null);
         }
-        log("Refueled.");
     }
 
     private void requestToLand() {
-        currentActivity = new AirplaneActivity(AirplaneAction.LANDING, airplaneCount == AsiaPacificAirportSimulationSystem.TOTAL_PLANES);
+        currentActivity = new AirplaneActivity(AirplaneAction.LANDING, store.isEmergency(id), engine);
         String requestToLandLoggingMessage = String.format(
                 "Request for %slanding.",
                 currentActivity.isEmergency() ? "emergency " : ""
         );
         log(requestToLandLoggingMessage);
+        recordEvent(FlightEventType.LANDING_REQUESTED, 0, getPassengerCount());
 
-        atc.handleLandingRequest(this);
+        store.getATC().handleLandingRequest(this);
     }
 
-    private void land() {
-        currentActivity.waitForActionRequestApproval();
+    /* Returns false when ATC diverted the airplane instead of clearing it to land. */
+    private boolean land() {
+        Runway runway = currentActivity.waitForActionRequestApproval();
+        if (runway == null) {
+            divert();
+            return false;
+        }
+        recordEvent(FlightEventType.LANDING_APPROVED, runway.getId(), getAssignedGateId());
 
-        atc.addWaitingTime(System.currentTimeMillis() - currentActivity.getActionRequestTime());
+        ATC atc = store.getATC();
+        atc.addWaitingTime(currentActivity, engine.now() - currentActivity.getActionRequestTime());
 
         atc.handlePreTrafficActivity(this);
         log("Landing approval received.");
         log("Landing on runway.");
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        engine.sleep(store.getConfig().getLandingDuration());
         log("Landed successfully.");
+        recordEvent(FlightEventType.LANDED, runway.getId(), 0);
 
-        setActivityCompletion(true);
-        atc.handlePostTrafficActivity(this);
+        completeActivity();
+        return true;
+    }
+
+    private void divert() {
+        long holdingTime = engine.now() - currentActivity.getActionRequestTime();
+        String divertLoggingMessage = String.format(
+                "Diverting to another airport after holding for %.3fs.",
+                holdingTime / 1000.0
+        );
+        log(LogLevel.WARN, divertLoggingMessage);
+        recordEvent(FlightEventType.DIVERTED, 0, (int) holdingTime);
+        store.getATC().airplaneDiverted();
     }
 
     private void dock() {
         log("Docking to the gate assigned.");
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        engine.sleep(store.getConfig().getDockingDuration());
         log("Docked successfully.");
+        recordEvent(FlightEventType.DOCKED, getAssignedGateId(), 0);
     }
 
-    private void requestToRefuel() {
+    CompletableFuture<Void> requestToRefuel() {
         log("Request to refuel.");
-        refuelTruck.enqueueAirplane(this);
+        refueling = new CompletableFuture<>();
+        store.getRefuelDispatcher().requestRefuel(this);
+        return refueling.thenRun(() -> log("Refueled."));
     }
 
-    private void clean() {
+    CompletableFuture<Void> clean() {
         log("Cabin Crew is cleaning the airplane.");
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-        log("Cabin Crew has finished cleaning the airplane.");
+        return engine.delay(getAircraftType().scaleTurnaroundDuration(store.getConfig().getCleaningDuration()))
+                .thenRun(() -> log("Cabin Crew has finished cleaning the airplane."));
     }
 
-    private void refillSupplies() {
+    CompletableFuture<Void> refillSupplies() {
         log("Cabin Crew is refilling airplane supplies.");
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-        log("Cabin Crew has finished refilling supplies.");
+        return engine.delay(getAircraftType().scaleTurnaroundDuration(store.getConfig().getSuppliesRefillDuration()))
+                .thenRun(() -> log("Cabin Crew has finished refilling supplies."));
     }
 
-    private void postDockingActivity() {
-        Thread requestToRefuelThread = new Thread(this::requestToRefuel);
-        Thread disembarkingThread = new Thread(this::disembarkPassenger);
-        Thread cleaningThread = new Thread(this::clean);
-        Thread refillingThread = new Thread(this::refillSupplies);
-        Thread embarkingThread = new Thread(this::embarkPassenger);
-
-        requestToRefuelThread.start();
-        disembarkingThread.start();
-
-        try {
-            disembarkingThread.join();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-
-        cleaningThread.start();
-        refillingThread.start();
+    CompletableFuture<Void> unloadBaggage() {
+        log("Ground Crew is unloading baggage.");
+        return engine.delay(getAircraftType().scaleTurnaroundDuration(store.getConfig().getBaggageUnloadingDuration()))
+                .thenRun(() -> log("Ground Crew has finished unloading baggage."));
+    }
 
-        try {
-            requestToRefuelThread.join();
-            cleaningThread.join();
-            refillingThread.join();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+    CompletableFuture<Void> loadBaggage() {
+        log("Ground Crew is loading baggage.");
+        return engine.delay(getAircraftType().scaleTurnaroundDuration(store.getConfig().getBaggageLoadingDuration()))
+                .thenRun(() -> log("Ground Crew has finished loading baggage."));
+    }
 
-        embarkingThread.start();
+    private void turnaround() {
+        Turnaround turnaround = engine.await(store.getTurnaroundExecutor().execute(this));
+        recordEvent(FlightEventType.TURNAROUND_COMPLETED, getAssignedGateId(), (int) turnaround.getDuration());
 
-        try {
-            embarkingThread.join();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        StringBuilder criticalPath = new StringBuilder();
+        for (TurnaroundTask task : turnaround.getCriticalPath()) {
+            if (criticalPath.length() > 0) {
+                criticalPath.append(" -> ");
+            }
+            criticalPath.append(task.getName());
         }
+        String turnaroundLoggingMessage = String.format(
+                "Turnaround completed in %.3fs, critical path: %s.",
+                turnaround.getDuration() / 1000.0,
+                criticalPath
+        );
+        log(turnaroundLoggingMessage);
     }
 
-    private void embarkPassenger() {
-        passengerCount = random.nextInt(MAX_PASSENGER_COUNT - MIN_PASSENGER_COUNT + 1) + MIN_PASSENGER_COUNT;
-        boardingLatch = new CountDownLatch(passengerCount);
-        boardPassenger(BoardType.EMBARK);
+    CompletableFuture<Void> embarkPassengers() {
+        store.setPassengerCount(id, nextPassengerCount(getAircraftType(), random));
+        return boardPassengers(BoardType.EMBARK);
     }
 
-    private void disembarkPassenger() {
-        boardPassenger(BoardType.DISEMBARK);
+    CompletableFuture<Void> disembarkPassengers() {
+        return boardPassengers(BoardType.DISEMBARK);
     }
 
-    private void boardPassenger(BoardType boardType) {
+    private CompletableFuture<Void> boardPassengers(BoardType boardType) {
+        int passengerCount = getPassengerCount();
         String allBoardingLoggingMessage = String.format(
                 "%d passengers are %s the airplane.",
                 passengerCount,
@@ -214,105 +272,60 @@ public class Airplane implements Runnable, Logging, Comparable<Airplane> {
         );
         log(allBoardingLoggingMessage);
 
-        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-
-        for (int i = 1; i <= passengerCount; i++) {
-            int passengerNumber = i;
-            executor.schedule(() -> {
-                boardingLatch.countDown();
-                String boardingLoggingMessage = String.format(
-                        "Passenger %d is %s the airplane. [%d/%d]",
-                        passengerNumber,
-                        boardType == BoardType.EMBARK ? "embarking" : "disembarking",
-                        passengerCompleted.incrementAndGet(),
-                        passengerCount
-                );
-                log(boardingLoggingMessage);
-
-                try {
-                    Thread.sleep(300);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-
-                atc.passengerIncrement();
-            }, i * 300L, TimeUnit.MILLISECONDS);
-        }
-
-        try {
-            boardingLatch.await();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-
-        passengerCompleted.set(0);
-        executor.shutdown();
-        String allBoardingCompletionLoggingMessage = String.format(
-                "All %d passengers have %s the airplane.",
-                passengerCount,
-                boardType == BoardType.EMBARK ? "embarked" : "disembarked"
-        );
-        log(allBoardingCompletionLoggingMessage);
+        return store.getPassengerFlowEngine().board(this, boardType, passengerCount).thenRun(() -> {
+            String allBoardingCompletionLoggingMessage = String.format(
+                    "All %d passengers have %s the airplane.",
+                    passengerCount,
+                    boardType == BoardType.EMBARK ? "embarked" : "disembarked"
+            );
+            log(allBoardingCompletionLoggingMessage);
+        });
     }
 
     private void requestToTakeOff() {
-        waitForRefueling();
-        currentActivity = new AirplaneActivity(AirplaneAction.TAKE_OFF);
+        currentActivity.begin(AirplaneAction.TAKE_OFF, false);
         log("Request for take off.");
-        atc.handleTakeOffRequest(this);
+        recordEvent(FlightEventType.TAKE_OFF_REQUESTED, getAssignedGateId(), getPassengerCount());
+        store.getATC().handleTakeOffRequest(this);
     }
 
     private void takeOff() {
-        currentActivity.waitForActionRequestApproval();
+        Runway runway = currentActivity.waitForActionRequestApproval();
+        recordEvent(FlightEventType.TAKE_OFF_APPROVED, runway.getId(), 0);
+
+        ATC atc = store.getATC();
+        atc.addWaitingTime(currentActivity, engine.now() - currentActivity.getActionRequestTime());
 
         atc.handlePreTrafficActivity(this);
         log("Take off approval received.");
 
         log("Taking off.");
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        engine.sleep(store.getConfig().getTakeOffDuration());
         log("Took off successfully.");
+        recordEvent(FlightEventType.TOOK_OFF, runway.getId(), 0);
 
-        setActivityCompletion(true);
-        atc.handlePostTrafficActivity(this);
+        completeActivity();
         atc.airplaneIncrement();
     }
 
+    private void recordEvent(FlightEventType eventType, int resourceId, int value) {
+        engine.getEventJournal().record(engine.getAirportTime().getElapsedTime(), this, eventType, resourceId, value);
+    }
+
     @Override
-    public void log(String loggingMessage) {
-        System.out.printf(
-                "%s %s: %s%n",
-                AirportTime.getCurrentTimestamp(),
-                getName(),
-                loggingMessage
-        );
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, getName(), loggingMessage);
     }
 
     @Override
     public void run() {
         requestToLand();
-        land();
+        if (!land()) {
+            return;
+        }
         dock();
-        postDockingActivity();
+        turnaround();
         requestToTakeOff();
         takeOff();
     }
-
-    @Override
-    public int compareTo(Airplane other) {
-        if (atc.getGateHandler().gateIsFull() && atc.nextActivityIsTakeOff()) {
-            if (this.currentActivity.getAction().equals(AirplaneAction.TAKE_OFF)) {
-                return -1;
-            } else if (other.currentActivity.getAction().equals(AirplaneAction.TAKE_OFF)) {
-                return 1;
-            } else {
-                return this.currentActivity.compareTo(other.currentActivity);
-            }
-        } else {
-            return this.currentActivity.compareTo(other.currentActivity);
-        }
-    }
 }
@@ -1,34 +1,41 @@
 package asia.pacific.airport.simulation.system;
 
-import static java.lang.System.currentTimeMillis;
-
-public class AirplaneActivity implements Comparable<AirplaneActivity> {
-    private final AirplaneAction action;
-    private final Long actionRequestTime;
+/*
+ * One landing or take-off request of an airplane: its runway approval and its completion, which
+ * releases the runway. A settled activity can begin again, so an airplane reuses one record and
+ * its two futures for its landing and its take off.
+ */
+public class AirplaneActivity {
+    private final SimulationEngine engine;
+    private AirplaneAction action;
+    private long actionRequestTime;
     private boolean isEmergency;
-    private final Object actionApprovalLock;
-    private boolean isActionApprovalGranted;
-    private final Object actionCompletionLock;
-    private boolean isActionCompleted;
+    private final SimulationFuture<Runway> approval;
+    private final SimulationFuture<Long> completion;
+
+    public AirplaneActivity(AirplaneAction action, SimulationEngine engine) {
+        this(action, false, engine);
+    }
 
-    public AirplaneActivity(AirplaneAction action) {
+    public AirplaneActivity(AirplaneAction action, boolean isEmergency, SimulationEngine engine) {
+        this.engine = engine;
         this.action = action;
-        isEmergency = false;
-        isActionApprovalGranted = false;
-        actionApprovalLock = new Object();
-        isActionCompleted = false;
-        actionCompletionLock = new Object();
-        this.actionRequestTime = currentTimeMillis();
+        this.isEmergency = isEmergency;
+        approval = new SimulationFuture<>(engine);
+        completion = new SimulationFuture<>(engine);
+        this.actionRequestTime = engine.now();
     }
 
-    public AirplaneActivity(AirplaneAction action, boolean isEmergency) {
+    /* Starts a new request on this record; the previous one must have been approved and completed. */
+    void begin(AirplaneAction action, boolean isEmergency) {
+        if (!approval.isDone() || !completion.isDone()) {
+            throw new IllegalStateException("An airplane activity can only be reused once it has completed.");
+        }
         this.action = action;
         this.isEmergency = isEmergency;
-        isActionApprovalGranted = false;
-        actionApprovalLock = new Object();
-        isActionCompleted = false;
-        actionCompletionLock = new Object();
-        this.actionRequestTime = currentTimeMillis();
+        approval.reset();
+        completion.reset();
+        actionRequestTime = engine.now();
     }
 
     public AirplaneAction getAction() {
@@ -44,81 +51,44 @@ public class AirplaneActivity implements Comparable<AirplaneActivity> {
     }
 
     public boolean isActionApprovalGranted() {
-        synchronized (actionApprovalLock) {
-            return isActionApprovalGranted;
-        }
+        return approval.isDone();
     }
 
-    public void setActionApprovalGranted(boolean isActionRequestApproved) {
-        synchronized (actionApprovalLock) {
-            this.isActionApprovalGranted = isActionRequestApproved;
-            actionApprovalLock.notifyAll();
-        }
+    public void grantApproval(Runway runway) {
+        approval.complete(runway);
     }
 
-    public void waitForActionRequestApproval() {
-        synchronized (actionApprovalLock) {
-            while (!isActionApprovalGranted) {
-                try {
-                    actionApprovalLock.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+    public Runway waitForActionRequestApproval() {
+        return approval.await();
     }
 
-    public Object getActionApprovalLock() {
-        return actionApprovalLock;
+    /* Ends a landing request without a runway: the airplane diverts to another airport instead. */
+    public void divert(long time) {
+        approval.complete(null);
+        completion.complete(time);
     }
 
     public boolean isActionCompleted() {
-        synchronized (actionCompletionLock) {
-            return isActionCompleted;
-        }
+        return completion.isDone();
     }
 
-    public void setActionCompleted(boolean isActionCompleted) {
-        synchronized (actionCompletionLock) {
-            this.isActionCompleted = isActionCompleted;
-            actionCompletionLock.notifyAll();
-        }
+    public void completeAction(long completionTime) {
+        completion.complete(completionTime);
     }
 
-    public void waitForActionCompletion() {
-        synchronized (actionCompletionLock) {
-            while (!isActionCompleted) {
-                try {
-                    actionCompletionLock.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+    public SimulationFuture<Long> getCompletion() {
+        return completion;
     }
 
-    public Object getActionCompletionLock() {
-        return actionCompletionLock;
+    public Runway getRunway() {
+        return approval.getNow(null);
     }
 
-    public Long getActionRequestTime() {
+    public long getActionRequestTime() {
         return actionRequestTime;
     }
 
     public String getName() {
         return action == AirplaneAction.LANDING ? "Landing" : "Take Off";
     }
-
-    @Override
-    public int compareTo(AirplaneActivity other) {
-        if (isEmergency) {
-            if (action.equals(AirplaneAction.TAKE_OFF)) {
-                return -2;
-            } else {
-                return -1;
-            }
-        }
-
-        return Long.compare(this.actionRequestTime, other.actionRequestTime);
-    }
 }
@@ -0,0 +1,287 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/*
+ * Holding queue for airplanes waiting on ATC, split into emergency take-off, emergency landing,
+ * take-off and landing lanes, with a landing and an emergency landing lane per aircraft class so
+ * that an airplane whose class has a free gate is never stuck behind one whose class has none.
+ * Offering an airplane captures an immutable entry of its request
+ * time, id and lane, and lanes order and remove those entries, so a queued airplane keeps its
+ * place even when its activity record is later reused or re-flagged. Each lane is a binary heap
+ * whose entries know their own slot, so heads are peeked in O(1) and both polling and removing an
+ * arbitrary airplane, e.g. one promoted or diverted from the holding stack, take O(log n). Like
+ * the rest of ATC, the queue is only touched by the process currently holding the simulation
+ * engine.
+ */
+public class AirplaneSchedulingQueue {
+    private static final Comparator<Entry> REQUEST_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.requestTime)
+            .thenComparingInt(entry -> entry.airplaneId);
+    private static final AircraftClass[] AIRCRAFT_CLASSES = AircraftClass.values();
+    private static final Predicate<AircraftClass> ANY_AIRCRAFT_CLASS = aircraftClass -> true;
+    private final Lane emergencyTakeOffLane;
+    private final Lane[] emergencyLandingLanes;
+    private final Lane takeOffLane;
+    private final Lane[] landingLanes;
+    private final Map<Airplane, Entry> entries;
+
+    public AirplaneSchedulingQueue() {
+        emergencyTakeOffLane = new Lane();
+        emergencyLandingLanes = new Lane[AIRCRAFT_CLASSES.length];
+        takeOffLane = new Lane();
+        landingLanes = new Lane[AIRCRAFT_CLASSES.length];
+        for (AircraftClass aircraftClass : AIRCRAFT_CLASSES) {
+            emergencyLandingLanes[aircraftClass.ordinal()] = new Lane();
+            landingLanes[aircraftClass.ordinal()] = new Lane();
+        }
+        entries = new IdentityHashMap<>();
+    }
+
+    public void offer(Airplane airplane) {
+        if (entries.containsKey(airplane)) {
+            throw new IllegalStateException(airplane.getName() + " is already queued.");
+        }
+        AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
+        Entry entry = new Entry(airplane, airplaneActivity.getActionRequestTime(), laneOf(airplane, airplaneActivity));
+        entries.put(airplane, entry);
+        entry.lane.offer(entry);
+    }
+
+    private Lane laneOf(Airplane airplane, AirplaneActivity airplaneActivity) {
+        if (airplaneActivity.getAction() == AirplaneAction.TAKE_OFF) {
+            return airplaneActivity.isEmergency() ? emergencyTakeOffLane : takeOffLane;
+        }
+        int classIndex = airplane.getAircraftClass().ordinal();
+        return airplaneActivity.isEmergency() ? emergencyLandingLanes[classIndex] : landingLanes[classIndex];
+    }
+
+    /* Takes an airplane out of the lane it was offered to, e.g. to re-offer it as an emergency. */
+    public boolean remove(Airplane airplane) {
+        Entry entry = entries.remove(airplane);
+        if (entry == null) {
+            return false;
+        }
+        entry.lane.remove(entry);
+        return true;
+    }
+
+    /* isLandingAvailable tells, per aircraft class, whether a landing of that class can be served now. */
+    public Airplane peek(Predicate<AircraftClass> isLandingAvailable, boolean isTakeOffAvailable) {
+        Lane lane = laneToServe(isLandingAvailable, isTakeOffAvailable);
+        return lane == null ? null : lane.peek().airplane;
+    }
+
+    public Airplane poll(Predicate<AircraftClass> isLandingAvailable, boolean isTakeOffAvailable) {
+        Lane lane = laneToServe(isLandingAvailable, isTakeOffAvailable);
+        if (lane == null) {
+            return null;
+        }
+        Entry entry = lane.poll();
+        entries.remove(entry.airplane);
+        return entry.airplane;
+    }
+
+    private Lane laneToServe(Predicate<AircraftClass> isLandingAvailable, boolean isTakeOffAvailable) {
+        if (isTakeOffAvailable && !emergencyTakeOffLane.isEmpty()) {
+            return emergencyTakeOffLane;
+        }
+        Lane emergencyLandingLane = earliestLane(emergencyLandingLanes, isLandingAvailable);
+        if (emergencyLandingLane != null) {
+            return emergencyLandingLane;
+        }
+
+        Lane landingLane = earliestLane(landingLanes, isLandingAvailable);
+        Entry nextTakeOff = isTakeOffAvailable ? takeOffLane.peek() : null;
+        Entry nextLanding = landingLane == null ? null : landingLane.peek();
+        if (nextTakeOff == null && nextLanding == null) {
+            return null;
+        }
+        if (nextLanding == null || (nextTakeOff != null && REQUEST_ORDER.compare(nextTakeOff, nextLanding) < 0)) {
+            return takeOffLane;
+        }
+        return landingLane;
+    }
+
+    public Airplane peekTakeOff() {
+        return airplaneOf(emergencyTakeOffLane.isEmpty() ? takeOffLane.peek() : emergencyTakeOffLane.peek());
+    }
+
+    public Airplane peekLanding() {
+        return peekLanding(ANY_AIRCRAFT_CLASS);
+    }
+
+    /* Next landing, emergencies first, among the aircraft classes the filter accepts. */
+    public Airplane peekLanding(Predicate<AircraftClass> isEligible) {
+        Lane lane = earliestLane(emergencyLandingLanes, isEligible);
+        if (lane == null) {
+            lane = earliestLane(landingLanes, isEligible);
+        }
+        return lane == null ? null : lane.peek().airplane;
+    }
+
+    /* Non-empty lane with the earliest head among the aircraft classes the filter accepts. */
+    private static Lane earliestLane(Lane[] classLanes, Predicate<AircraftClass> isEligible) {
+        Lane earliestLane = null;
+        for (AircraftClass aircraftClass : AIRCRAFT_CLASSES) {
+            Lane lane = classLanes[aircraftClass.ordinal()];
+            if (
+                !lane.isEmpty() &&
+                (earliestLane == null || REQUEST_ORDER.compare(lane.peek(), earliestLane.peek()) < 0) &&
+                isEligible.test(aircraftClass)
+            ) {
+                earliestLane = lane;
+            }
+        }
+        return earliestLane;
+    }
+
+    /* Request time the airplane was queued with, or -1 when it is not queued. */
+    public long getQueuedRequestTime(Airplane airplane) {
+        Entry entry = entries.get(airplane);
+        return entry == null ? -1 : entry.requestTime;
+    }
+
+    private static Airplane airplaneOf(Entry entry) {
+        return entry == null ? null : entry.airplane;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getEmergencyCount() {
+        return emergencyTakeOffLane.size() + sizeOf(emergencyLandingLanes);
+    }
+
+    public int getTakeOffCount() {
+        return emergencyTakeOffLane.size() + takeOffLane.size();
+    }
+
+    public int getLandingCount() {
+        return sizeOf(emergencyLandingLanes) + sizeOf(landingLanes);
+    }
+
+    private static int sizeOf(Lane[] classLanes) {
+        int size = 0;
+        for (Lane lane : classLanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    private static class Entry {
+        private final Airplane airplane;
+        private final int airplaneId;
+        private final long requestTime;
+        private final Lane lane;
+        private int index;
+
+        private Entry(Airplane airplane, long requestTime, Lane lane) {
+            this.airplane = airplane;
+            airplaneId = airplane.getId();
+            this.requestTime = requestTime;
+            this.lane = lane;
+        }
+    }
+
+    /* Binary min-heap of entries in request order; every entry tracks its slot for O(log n) removal. */
+    private static class Lane {
+        private static final int INITIAL_CAPACITY = 16;
+        private Entry[] heap;
+        private int size;
+
+        private Lane() {
+            heap = new Entry[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private Entry peek() {
+            return size == 0 ? null : heap[0];
+        }
+
+        private void offer(Entry entry) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length << 1);
+            }
+            heap[size] = entry;
+            entry.index = size;
+            size++;
+            siftUp(entry.index);
+        }
+
+        private Entry poll() {
+            Entry head = heap[0];
+            remove(head);
+            return head;
+        }
+
+        private void remove(Entry entry) {
+            int index = entry.index;
+            size--;
+            Entry last = heap[size];
+            heap[size] = null;
+            entry.index = -1;
+            if (index < size) {
+                heap[index] = last;
+                last.index = index;
+                siftDown(index);
+                if (heap[index] == last) {
+                    siftUp(index);
+                }
+            }
+        }
+
+        private void siftUp(int index) {
+            Entry entry = heap[index];
+            while (index > 0) {
+                int parentIndex = (index - 1) >>> 1;
+                Entry parent = heap[parentIndex];
+                if (REQUEST_ORDER.compare(entry, parent) >= 0) {
+                    break;
+                }
+                heap[index] = parent;
+                parent.index = index;
+                index = parentIndex;
+            }
+            heap[index] = entry;
+            entry.index = index;
+        }
+
+        private void siftDown(int index) {
+            Entry entry = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int childIndex = (index << 1) + 1;
+                int rightIndex = childIndex + 1;
+                if (rightIndex < size && REQUEST_ORDER.compare(heap[rightIndex], heap[childIndex]) < 0) {
+                    childIndex = rightIndex;
+                }
+                if (REQUEST_ORDER.compare(entry, heap[childIndex]) <= 0) {
+                    break;
+                }
+                heap[index] = heap[childIndex];
+                heap[index].index = index;
+                index = childIndex;
+            }
+            heap[index] = entry;
+            entry.index = index;
+        }
+    }
+}
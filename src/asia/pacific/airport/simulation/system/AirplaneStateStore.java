@@ -0,0 +1,168 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.Arrays;
+
+/*
+ * Flight state held in primitive arrays indexed by airplane id, about 22 bytes per flight.
+ * An Airplane is a thin view over one slot that exists only while its flight is active: it is
+ * created when the flight arrives and dropped after take off, so flights that have not arrived
+ * yet or have already left cost nothing but their array slots. The store also holds what all
+ * airplanes share, their collaborators and aircraft types, so a view carries little besides its id.
+ */
+public class AirplaneStateStore {
+    private static final int MINIMUM_CAPACITY = 16;
+    private static final byte EMERGENCY = 1;
+    private static final byte REFUELED = 1 << 1;
+    private final ATC atc;
+    private final RefuelDispatcher refuelDispatcher;
+    private final PassengerFlowEngine passengerFlowEngine;
+    private final TurnaroundExecutor turnaroundExecutor;
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final AircraftType[] aircraftTypes;
+    private byte[] aircraftClasses;
+    private byte[] flags;
+    private int[] passengerCounts;
+    private int[] assignedGateIds;
+    private long[] fuelDemands;
+    private int[] holdingFuelEndurances;
+    private int airplaneCount;
+
+    public AirplaneStateStore(
+            ATC atc,
+            RefuelDispatcher refuelDispatcher,
+            PassengerFlowEngine passengerFlowEngine,
+            TurnaroundExecutor turnaroundExecutor,
+            SimulationEngine engine,
+            SimulationConfig config,
+            int expectedAirplaneCount
+    ) {
+        this.atc = atc;
+        this.refuelDispatcher = refuelDispatcher;
+        this.passengerFlowEngine = passengerFlowEngine;
+        this.turnaroundExecutor = turnaroundExecutor;
+        this.engine = engine;
+        this.config = config;
+        aircraftTypes = new AircraftType[AircraftClass.values().length];
+        aircraftTypes[AircraftClass.NARROW_BODY.ordinal()] = AircraftType.narrowBody(config);
+        aircraftTypes[AircraftClass.WIDE_BODY.ordinal()] = AircraftType.wideBody(config);
+
+        int capacity = Math.max(MINIMUM_CAPACITY, expectedAirplaneCount + 1);
+        aircraftClasses = new byte[capacity];
+        flags = new byte[capacity];
+        passengerCounts = new int[capacity];
+        assignedGateIds = new int[capacity];
+        fuelDemands = new long[capacity];
+        holdingFuelEndurances = new int[capacity];
+        airplaneCount = 0;
+    }
+
+    public ATC getATC() {
+        return atc;
+    }
+
+    public RefuelDispatcher getRefuelDispatcher() {
+        return refuelDispatcher;
+    }
+
+    public PassengerFlowEngine getPassengerFlowEngine() {
+        return passengerFlowEngine;
+    }
+
+    public TurnaroundExecutor getTurnaroundExecutor() {
+        return turnaroundExecutor;
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public SimulationConfig getConfig() {
+        return config;
+    }
+
+    public AircraftType getAircraftType(AircraftClass aircraftClass) {
+        return aircraftTypes[aircraftClass.ordinal()];
+    }
+
+    public int getAirplaneCount() {
+        return airplaneCount;
+    }
+
+    void register(
+            int id,
+            AircraftClass aircraftClass,
+            int passengerCount,
+            long fuelDemand,
+            int holdingFuelEndurance,
+            boolean isEmergency
+    ) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Airplane ids start at 1.");
+        }
+        if (id >= flags.length) {
+            grow(id);
+        }
+        aircraftClasses[id] = (byte) aircraftClass.ordinal();
+        flags[id] = isEmergency ? EMERGENCY : 0;
+        passengerCounts[id] = passengerCount;
+        assignedGateIds[id] = -1;
+        fuelDemands[id] = fuelDemand;
+        holdingFuelEndurances[id] = holdingFuelEndurance;
+        airplaneCount = Math.max(airplaneCount, id);
+    }
+
+    private void grow(int id) {
+        int capacity = Math.max(id + 1, flags.length + (flags.length >> 1));
+        aircraftClasses = Arrays.copyOf(aircraftClasses, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        passengerCounts = Arrays.copyOf(passengerCounts, capacity);
+        assignedGateIds = Arrays.copyOf(assignedGateIds, capacity);
+        fuelDemands = Arrays.copyOf(fuelDemands, capacity);
+        holdingFuelEndurances = Arrays.copyOf(holdingFuelEndurances, capacity);
+    }
+
+    public AircraftType getAircraftType(int id) {
+        return aircraftTypes[aircraftClasses[id]];
+    }
+
+    public boolean isEmergency(int id) {
+        return (flags[id] & EMERGENCY) != 0;
+    }
+
+    public boolean isRefueled(int id) {
+        return (flags[id] & REFUELED) != 0;
+    }
+
+    void setRefueled(int id, boolean isRefueled) {
+        flags[id] = (byte) (isRefueled ? flags[id] | REFUELED : flags[id] & ~REFUELED);
+    }
+
+    public int getPassengerCount(int id) {
+        return passengerCounts[id];
+    }
+
+    void setPassengerCount(int id, int passengerCount) {
+        passengerCounts[id] = passengerCount;
+    }
+
+    public int getAssignedGateId(int id) {
+        return assignedGateIds[id];
+    }
+
+    void setAssignedGateId(int id, int assignedGateId) {
+        assignedGateIds[id] = assignedGateId;
+    }
+
+    public long getFuelDemand(int id) {
+        return fuelDemands[id];
+    }
+
+    void addFuelDemand(int id, long fuel) {
+        fuelDemands[id] += fuel;
+    }
+
+    public int getHoldingFuelEndurance(int id) {
+        return holdingFuelEndurances[id];
+    }
+}
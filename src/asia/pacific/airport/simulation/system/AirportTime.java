@@ -1,15 +1,45 @@
 package asia.pacific.airport.simulation.system;
 
+import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class AirportTime {
-    public static String getCurrentTimestamp(){
-        String timestamp = ZonedDateTime.now(ZoneId.of("Asia/Shanghai"))
-                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd kk:mm:ss"));
+    private static final ZoneId AIRPORT_ZONE = ZoneId.of("Asia/Shanghai");
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter
+            .ofPattern("'[ 'yyyy-MM-dd kk:mm:ss' ]'")
+            .withZone(AIRPORT_ZONE);
+    private final long startTime;
+    private volatile long currentTime;
 
-        return String.format("[ %s ]", timestamp);
+    public AirportTime(long startTime) {
+        this.startTime = startTime;
+        this.currentTime = startTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long now() {
+        return currentTime;
+    }
+
+    public long getElapsedTime() {
+        return currentTime - startTime;
     }
-}
 
+    void advanceTo(long time) {
+        if (time > currentTime) {
+            currentTime = time;
+        }
+    }
+
+    public static String formatTimestamp(long time) {
+        return TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(time));
+    }
+
+    public String getCurrentTimestamp(){
+        return formatTimestamp(currentTime);
+    }
+}
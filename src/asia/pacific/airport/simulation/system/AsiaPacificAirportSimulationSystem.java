@@ -1,49 +1,91 @@
 package asia.pacific.airport.simulation.system;
 
-import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
 public class AsiaPacificAirportSimulationSystem {
-    final static int TOTAL_PLANES = 6;
+    private static final int STRANDED_FLIGHT_LIMIT = 20;
 
     public static void main(String[] args) {
-        long startTime = System.currentTimeMillis();
-
-        ATC atc = new ATC();
-        FuelDepot fuelDepot = new FuelDepot();
-        RefuelTruck refuelTruck = new RefuelTruck(atc, fuelDepot);
+        SimulationConfig config = SimulationConfig.load(args);
+        if (config.getJournalReplayFile() != null) {
+            config = SimulationJournal.loadReplayConfig(config.getJournalReplayFile(), args);
+        }
 
-        ExecutorService executorService = Executors.newFixedThreadPool(TOTAL_PLANES + 1);
+        long startTime = System.currentTimeMillis();
+        SimulationJournal journal = SimulationJournal.create(config);
+        SimulationLogger logger = SimulationLogger.create(config);
+        SimulationMetrics metrics = new SimulationMetrics();
+        EventJournal eventJournal = EventJournal.create(config);
+        Simulation simulation = new Simulation(config, startTime, logger, journal, metrics, eventJournal);
+        if (config.isMetricsJmxEnabled()) {
+            metrics.registerMBean(config.getSeed());
+        }
+        SimulationEngine engine = simulation.getEngine();
+        System.out.printf(
+                "Simulation mode: %s, threads: %s, seed: %d, planes: %s, gates: %d, runways: %d, refuel trucks: %d%n",
+                config.getMode(),
+                engine.getThreadMode(),
+                config.getSeed(),
+                config.getFlightPlanFile() != null ? config.getFlightPlanFile() : config.getAirplaneCount(),
+                config.getGateCount(),
+                config.getRunwayCount(),
+                config.getRefuelTruckCount()
+        );
 
-        executorService.execute(refuelTruck);
+        try {
+            simulation.run();
+        } finally {
+            logger.close();
+            journal.close();
+            eventJournal.close();
+            metrics.unregisterMBean();
+        }
 
-        for (int i = 0; i < TOTAL_PLANES; i++) {
-            boolean isEmergency = i == TOTAL_PLANES - 1;
-            Airplane airplane = new Airplane(atc, refuelTruck);
-            executorService.execute(airplane);
-            try {
-                Thread.sleep(new Random().nextInt(3000));
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
+        ATC atc = simulation.getATC();
+        if (!atc.isAllAirplanesServed()) {
+            atc.printReport();
+            printStrandedFlights(simulation);
+            System.exit(1);
         }
 
-        executorService.shutdown();
+        long endTime = System.currentTimeMillis();
+        long operatingTime = (endTime - startTime) / 1000 ;
+        System.out.println("\nAll tasks completed. Asia Pacific Airport shuts down.");
+        System.out.println("Total operating time: " + operatingTime + " seconds");
+        atc.printThroughput();
+        System.out.printf("Total simulated time: %.3f seconds%n", engine.getAirportTime().getElapsedTime() / 1000.0);
+        if (journal.isReplaying()) {
+            System.out.println(journal.getReplaySummary());
+        }
+    }
 
-        try {
-            boolean terminated = executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-            if (terminated) {
-                long endTime = System.currentTimeMillis();
-                long operatingTime = (endTime - startTime) / 1000 ;
-                System.out.println("\nAll tasks completed. Asia Pacific Airport shuts down.");
-                System.out.println("Total operating time: " + operatingTime + " seconds");
-            } else {
-                System.out.println("\nTimeout occurred while waiting for tasks to complete.");
-            }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+    private static void printStrandedFlights(Simulation simulation) {
+        SimulationEngine engine = simulation.getEngine();
+        ATC atc = simulation.getATC();
+        FuelDepot fuelDepot = simulation.getFuelDepot();
+        List<String> strandedProcessNames = engine.getStrandedProcessNames();
+        System.out.printf(
+                "%nSimulation stalled at simulated time %.3f seconds: %d of %d airplanes served, %d stranded.%n",
+                engine.getAirportTime().getElapsedTime() / 1000.0,
+                atc.getTotalAirplaneCycleCount() + atc.getTotalDiversionCount(),
+                atc.getExpectedAirplaneCount(),
+                strandedProcessNames.size()
+        );
+        if (fuelDepot.isStarved()) {
+            System.out.printf(
+                    "Outcome: depot starvation, the fuel depot ran dry at %.3f seconds with no resupply scheduled.%n",
+                    fuelDepot.getStarvationTime() / 1000.0
+            );
+        }
+        if (!strandedProcessNames.isEmpty()) {
+            int shownCount = Math.min(strandedProcessNames.size(), STRANDED_FLIGHT_LIMIT);
+            System.out.printf(
+                    "Stranded flights: %s%s%n",
+                    String.join(", ", strandedProcessNames.subList(0, shownCount)),
+                    shownCount < strandedProcessNames.size() ?
+                            String.format(" and %d more", strandedProcessNames.size() - shownCount) :
+                            ""
+            );
         }
     }
 }
@@ -0,0 +1,62 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/*
+ * Multi-producer, single-consumer command mailbox. Any thread may post without locking; the
+ * poster that finds the mailbox idle is told so and must arrange for one drain, which then
+ * processes commands in batches until the pending count falls back to zero. Commands posted
+ * while a drain runs, including by the commands themselves, join its next batch instead of
+ * starting a second consumer, so the handler always runs single-threaded and never re-entrantly.
+ */
+public class ControllerMailbox<T> {
+    private final Queue<T> commands;
+    private final AtomicInteger pendingCommandCount;
+    private long processedCommandCount;
+    private long batchCount;
+    private long processingTime;
+
+    public ControllerMailbox() {
+        commands = new ConcurrentLinkedQueue<>();
+        pendingCommandCount = new AtomicInteger(0);
+    }
+
+    /* Returns true when the mailbox was idle and the caller must schedule a drain. */
+    public boolean post(T command) {
+        commands.offer(command);
+        return pendingCommandCount.getAndIncrement() == 0;
+    }
+
+    public void drain(Consumer<? super T> handler) {
+        long startTime = System.nanoTime();
+        int batchSize = pendingCommandCount.get();
+        do {
+            for (int i = 0; i < batchSize; i++) {
+                handler.accept(commands.poll());
+            }
+            processedCommandCount += batchSize;
+            batchCount++;
+            batchSize = pendingCommandCount.addAndGet(-batchSize);
+        } while (batchSize > 0);
+        processingTime += System.nanoTime() - startTime;
+    }
+
+    public int getPendingCommandCount() {
+        return pendingCommandCount.get();
+    }
+
+    public long getProcessedCommandCount() {
+        return processedCommandCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getProcessingTime() {
+        return processingTime;
+    }
+}
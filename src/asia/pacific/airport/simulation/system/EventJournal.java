@@ -0,0 +1,225 @@
+package asia.pacific.airport.simulation.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Append-only binary journal of airplane events, for analysing runs at scale without parsing log
+ * text. Each event is a fixed-width record (simulated time, airplane id, event type, flags, gate
+ * or runway id, value) claimed in a pre-allocated ring with one getAndIncrement and published with
+ * an ordered store, like SimulationLogger. A single background writer copies published records
+ * into memory-mapped segment files <file>.0000, <file>.0001, ... of event.journal.segment.size
+ * bytes each and trims the last one on close. FlightSummaryExporter turns a journal into CSV.
+ */
+public class EventJournal implements AutoCloseable {
+    static final int MAGIC = 0x41504a31;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+    static final int EMERGENCY_FLAG = 1;
+    private static final int RING_SIZE = 1 << 14;
+    private static final long WRITER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private final String path;
+    private final long segmentSize;
+    private final long[] times;
+    private final int[] entityIds;
+    private final short[] eventTypes;
+    private final short[] flags;
+    private final int[] resourceIds;
+    private final int[] values;
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLong claimSequence;
+    private volatile long consumedSequence;
+    private volatile boolean isClosed;
+    private final Thread writerThread;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long recordCount;
+    private volatile RuntimeException writerFailure;
+
+    private EventJournal(String path, long segmentSize) {
+        this.path = path;
+        this.segmentSize = segmentSize;
+        times = new long[RING_SIZE];
+        entityIds = new int[RING_SIZE];
+        eventTypes = new short[RING_SIZE];
+        flags = new short[RING_SIZE];
+        resourceIds = new int[RING_SIZE];
+        values = new int[RING_SIZE];
+        publishedSequences = new AtomicLongArray(RING_SIZE);
+        claimSequence = new AtomicLong(0);
+        consumedSequence = 0;
+        segmentIndex = -1;
+        recordCount = 0;
+
+        writerThread = new Thread(this::drain, "Event Journal");
+        writerThread.setDaemon(true);
+        if (path != null) {
+            deleteSegments(path);
+            openNextSegment();
+            writerThread.start();
+        }
+    }
+
+    public static EventJournal disabled() {
+        return new EventJournal(null, 0);
+    }
+
+    public static EventJournal create(SimulationConfig config) {
+        if (config.getEventJournalFile() == null) {
+            return disabled();
+        }
+        return new EventJournal(config.getEventJournalFile(), config.getEventJournalSegmentSize());
+    }
+
+    private static void deleteSegments(String path) {
+        try {
+            for (int i = 0; Files.deleteIfExists(segmentPath(path, i)); i++) {
+                // segments are numbered contiguously, so the first gap ends the previous journal
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to remove the previous event journal: " + path, e);
+        }
+    }
+
+    static Path segmentPath(String path, int segmentIndex) {
+        return Paths.get(String.format("%s.%04d", path, segmentIndex));
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void record(long time, Airplane airplane, FlightEventType eventType, int resourceId, int value) {
+        if (path == null || isClosed) {
+            return;
+        }
+
+        long sequence = claimSequence.getAndIncrement();
+        while (sequence - consumedSequence >= RING_SIZE) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(WRITER_PARK_NANOS);
+        }
+
+        int index = (int) (sequence & (RING_SIZE - 1));
+        times[index] = time;
+        entityIds[index] = airplane.getId();
+        eventTypes[index] = (short) eventType.getCode();
+        flags[index] = (short) (airplane.getCurrentActivity().isEmergency() ? EMERGENCY_FLAG : 0);
+        resourceIds[index] = resourceId;
+        values[index] = value;
+        publishedSequences.lazySet(index, sequence + 1);
+    }
+
+    @Override
+    public void close() {
+        if (path == null || segmentChannel == null) {
+            return;
+        }
+
+        isClosed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        if (writerFailure != null) {
+            throw writerFailure;
+        }
+        closeSegment();
+    }
+
+    private void drain() {
+        try {
+            long sequence = consumedSequence;
+            while (true) {
+                int index = (int) (sequence & (RING_SIZE - 1));
+                if (publishedSequences.get(index) == sequence + 1) {
+                    append(index);
+                    consumedSequence = ++sequence;
+                    continue;
+                }
+                if (isClosed && sequence == claimSequence.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+            }
+        } catch (RuntimeException e) {
+            writerFailure = e;
+            isClosed = true;
+            consumedSequence = Long.MAX_VALUE / 2;
+        }
+    }
+
+    private void append(int index) {
+        if (segment.remaining() < RECORD_SIZE) {
+            closeSegment();
+            openNextSegment();
+        }
+        segment.putLong(times[index])
+                .putInt(entityIds[index])
+                .putShort(eventTypes[index])
+                .putShort(flags[index])
+                .putInt(resourceIds[index])
+                .putInt(values[index]);
+        recordCount++;
+    }
+
+    private void openNextSegment() {
+        segmentIndex++;
+        Path segmentPath = segmentPath(path, segmentIndex);
+        try {
+            segmentChannel = FileChannel.open(
+                    segmentPath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE
+            );
+            segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segment.putInt(MAGIC).putInt(RECORD_SIZE).putLong(segmentIndex);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to open event journal segment: " + segmentPath, e);
+        }
+    }
+
+    /* Flushes the mapped segment and trims the file to the records actually written. */
+    private void closeSegment() {
+        try {
+            int writtenSize = segment.position();
+            segment.force();
+            segment = null;
+            segmentChannel.truncate(writtenSize);
+            segmentChannel.close();
+            segmentChannel = null;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static ByteBuffer readHeader(ByteBuffer segment, Path segmentPath) {
+        if (segment.remaining() < HEADER_SIZE || segment.getInt() != MAGIC || segment.getInt() != RECORD_SIZE) {
+            throw new IllegalArgumentException("Not an event journal segment: " + segmentPath);
+        }
+        segment.getLong();
+        if (segment.remaining() % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Event journal segment is truncated: " + segmentPath);
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,39 @@
+package asia.pacific.airport.simulation.system;
+
+/* Kinds of record in the event journal; the code is what is stored, so existing codes must not change. */
+public enum FlightEventType {
+    LANDING_REQUESTED(1),
+    LANDING_APPROVED(2),
+    LANDED(3),
+    DOCKED(4),
+    TURNAROUND_COMPLETED(5),
+    TAKE_OFF_REQUESTED(6),
+    TAKE_OFF_APPROVED(7),
+    TOOK_OFF(8),
+    FUEL_EMERGENCY(9),
+    DIVERTED(10);
+
+    private static final FlightEventType[] BY_CODE = new FlightEventType[11];
+    private final int code;
+
+    static {
+        for (FlightEventType eventType : values()) {
+            BY_CODE[eventType.code] = eventType;
+        }
+    }
+
+    FlightEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static FlightEventType of(int code) {
+        if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown flight event type: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
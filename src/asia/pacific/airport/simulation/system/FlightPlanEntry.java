@@ -0,0 +1,43 @@
+package asia.pacific.airport.simulation.system;
+
+public class FlightPlanEntry {
+    private final String flightId;
+    private final long estimatedArrivalTime;
+    private final String aircraftType;
+    private final int passengerCount;
+    private final boolean isEmergency;
+
+    public FlightPlanEntry(
+            String flightId,
+            long estimatedArrivalTime,
+            String aircraftType,
+            int passengerCount,
+            boolean isEmergency
+    ) {
+        this.flightId = flightId;
+        this.estimatedArrivalTime = estimatedArrivalTime;
+        this.aircraftType = aircraftType;
+        this.passengerCount = passengerCount;
+        this.isEmergency = isEmergency;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public long getEstimatedArrivalTime() {
+        return estimatedArrivalTime;
+    }
+
+    public String getAircraftType() {
+        return aircraftType;
+    }
+
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+
+    public boolean isEmergency() {
+        return isEmergency;
+    }
+}
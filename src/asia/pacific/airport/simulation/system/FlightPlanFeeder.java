@@ -0,0 +1,95 @@
+package asia.pacific.airport.simulation.system;
+
+/*
+ * Feeds the arrivals of a flight plan into the simulation as simulated time reaches them.
+ * Only the next arrival is read ahead: each arrival event creates its airplane and then reads and
+ * schedules the one after it, so the number of pending airplanes and events does not grow with
+ * the plan. ATC learns the total number of airplanes once the plan is exhausted.
+ */
+public class FlightPlanFeeder implements Logging {
+    private static final String FLIGHT_PLAN = "Flight Plan";
+    private final FlightPlanReader flightPlanReader;
+    private final AirplaneStateStore airplaneStateStore;
+    private final ATC atc;
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final SimulationRandom random;
+    private int arrivalCount;
+
+    public FlightPlanFeeder(
+            FlightPlanReader flightPlanReader,
+            AirplaneStateStore airplaneStateStore,
+            SimulationRandom random
+    ) {
+        this.flightPlanReader = flightPlanReader;
+        this.airplaneStateStore = airplaneStateStore;
+        atc = airplaneStateStore.getATC();
+        engine = airplaneStateStore.getEngine();
+        config = airplaneStateStore.getConfig();
+        this.random = random;
+        arrivalCount = 0;
+    }
+
+    public void start() {
+        FlightPlanEntry firstEntry = flightPlanReader.next();
+        if (firstEntry == null) {
+            flightPlanReader.close();
+            throw new IllegalArgumentException("Flight plan has no arrivals: " + flightPlanReader.getPath());
+        }
+        atc.setExpectedAirplaneCount(Integer.MAX_VALUE);
+        scheduleArrival(firstEntry);
+    }
+
+    private void scheduleArrival(FlightPlanEntry entry) {
+        engine.schedule(
+                entry.getEstimatedArrivalTime() - engine.getAirportTime().getElapsedTime(),
+                () -> arrive(entry)
+        );
+    }
+
+    /* Without wide-body gates the airport does not tell classes apart and every flight is narrow-body. */
+    private AircraftType aircraftTypeOf(FlightPlanEntry entry) {
+        return airplaneStateStore.getAircraftType(
+                config.getWideBodyGateCount() > 0 && config.isWideBodyModel(entry.getAircraftType()) ?
+                        AircraftClass.WIDE_BODY :
+                        AircraftClass.NARROW_BODY
+        );
+    }
+
+    private void arrive(FlightPlanEntry entry) {
+        arrivalCount++;
+        Airplane airplane = new Airplane(
+                arrivalCount,
+                airplaneStateStore,
+                aircraftTypeOf(entry),
+                random.split(arrivalCount),
+                entry.getPassengerCount(),
+                entry.isEmergency()
+        );
+
+        if (engine.isLoggable(LogLevel.DEBUG)) {
+            String arrivalLoggingMessage = String.format(
+                    "Flight %s (%s) with %d passengers arrives as %s.",
+                    entry.getFlightId(),
+                    entry.getAircraftType(),
+                    entry.getPassengerCount(),
+                    airplane.getName()
+            );
+            log(LogLevel.DEBUG, arrivalLoggingMessage);
+        }
+        engine.spawn(airplane.getName(), airplane);
+
+        FlightPlanEntry nextEntry = flightPlanReader.next();
+        if (nextEntry == null) {
+            flightPlanReader.close();
+            atc.setExpectedAirplaneCount(arrivalCount);
+        } else {
+            scheduleArrival(nextEntry);
+        }
+    }
+
+    @Override
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, FLIGHT_PLAN, loggingMessage);
+    }
+}
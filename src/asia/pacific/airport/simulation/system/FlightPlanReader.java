@@ -0,0 +1,220 @@
+package asia.pacific.airport.simulation.system;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Streaming reader for flight plan CSV files with one arrival per line:
+ * flight id, ETA in milliseconds after the simulation start, aircraft type, passengers and an
+ * emergency flag. The file is memory-mapped one window at a time and parsed in place, so only the
+ * current window and the entry being returned are ever held, however many rows the file has.
+ * Rows must be sorted by ETA; a header line, blank lines and # comments are skipped.
+ */
+public class FlightPlanReader implements AutoCloseable {
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int FIELD_COUNT = 5;
+    private final String path;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowSize;
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long lineNumber;
+    private long previousArrivalTime;
+    private boolean isFirstRow;
+
+    public FlightPlanReader(String path) {
+        this(path, WINDOW_SIZE);
+    }
+
+    /* A smaller window makes rows cross window boundaries without a file of 64 MB or more. */
+    FlightPlanReader(String path, long windowSize) {
+        this.path = path;
+        this.windowSize = windowSize;
+        try {
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+            fileSize = channel.size();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to open flight plan file: " + path, e);
+        }
+        fieldStarts = new int[FIELD_COUNT];
+        fieldEnds = new int[FIELD_COUNT];
+        windowStart = 0;
+        lineNumber = 0;
+        previousArrivalTime = 0;
+        isFirstRow = true;
+        mapWindow(0);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /* Returns the next arrival of the plan, or null once the file is exhausted. */
+    public FlightPlanEntry next() {
+        while (true) {
+            int lineStart = window.position();
+            int lineEnd = findLineEnd(lineStart);
+            if (lineEnd < 0) {
+                if (windowStart + window.limit() >= fileSize) {
+                    if (lineStart == window.limit()) {
+                        return null;
+                    }
+                    lineEnd = window.limit();
+                } else if (lineStart == 0) {
+                    lineNumber++;
+                    throw invalidLine("is longer than " + windowSize + " bytes");
+                } else {
+                    mapWindow(windowStart + lineStart);
+                    continue;
+                }
+            }
+
+            window.position(Math.min(lineEnd + 1, window.limit()));
+            lineNumber++;
+            FlightPlanEntry entry = parseLine(lineStart, lineEnd);
+            if (entry != null) {
+                return entry;
+            }
+        }
+    }
+
+    private int findLineEnd(int lineStart) {
+        for (int i = lineStart; i < window.limit(); i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private FlightPlanEntry parseLine(int lineStart, int lineEnd) {
+        int start = skipWhitespace(lineStart, lineEnd);
+        if (start == lineEnd || window.get(start) == '#') {
+            return null;
+        }
+
+        int fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || window.get(i) == ',') {
+                if (fieldCount == FIELD_COUNT) {
+                    throw invalidLine("has more than " + FIELD_COUNT + " fields");
+                }
+                fieldStarts[fieldCount] = skipWhitespace(fieldStart, i);
+                fieldEnds[fieldCount] = trimWhitespace(fieldStarts[fieldCount], i);
+                fieldCount++;
+                fieldStart = i + 1;
+            }
+        }
+        if (fieldCount != FIELD_COUNT) {
+            throw invalidLine("does not have " + FIELD_COUNT + " fields");
+        }
+
+        boolean isHeader = isFirstRow && !isDigit(window.get(fieldStarts[1]));
+        isFirstRow = false;
+        if (isHeader) {
+            return null;
+        }
+
+        long estimatedArrivalTime = parseNumber(1);
+        if (estimatedArrivalTime < previousArrivalTime) {
+            throw invalidLine("is not sorted by ETA");
+        }
+        previousArrivalTime = estimatedArrivalTime;
+
+        return new FlightPlanEntry(
+                parseString(0),
+                estimatedArrivalTime,
+                parseString(2),
+                (int) Math.min(Integer.MAX_VALUE, parseNumber(3)),
+                parseFlag(4)
+        );
+    }
+
+    private int skipWhitespace(int start, int end) {
+        while (start < end && isWhitespace(window.get(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimWhitespace(int start, int end) {
+        while (end > start && isWhitespace(window.get(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t' || value == '\r';
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private String parseString(int field) {
+        byte[] bytes = new byte[fieldEnds[field] - fieldStarts[field]];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(fieldStarts[field] + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long parseNumber(int field) {
+        if (fieldStarts[field] == fieldEnds[field]) {
+            throw invalidLine("has an empty number in field " + (field + 1));
+        }
+        long value = 0;
+        for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+            byte digit = window.get(i);
+            if (!isDigit(digit) || value > (Long.MAX_VALUE - (digit - '0')) / 10) {
+                throw invalidLine("has an invalid number in field " + (field + 1));
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private boolean parseFlag(int field) {
+        String flag = parseString(field);
+        if (flag.isEmpty() || flag.equals("0") || flag.equalsIgnoreCase("false") || flag.equalsIgnoreCase("no")) {
+            return false;
+        }
+        if (flag.equals("1") || flag.equalsIgnoreCase("true") || flag.equalsIgnoreCase("yes")) {
+            return true;
+        }
+        throw invalidLine("has an invalid emergency flag: " + flag);
+    }
+
+    private IllegalArgumentException invalidLine(String problem) {
+        return new IllegalArgumentException(String.format(
+                "Flight plan %s line %d %s.", path, lineNumber, problem
+        ));
+    }
+
+    private void mapWindow(long start) {
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+            windowStart = start;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read flight plan file: " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package asia.pacific.airport.simulation.system;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * Java Flight Recorder events for the simulation's contention points and service phases.
+ * Waits and phases are measured on the simulated clock and carried as timespan fields, since the
+ * wall-clock duration of a simulated wait says nothing; only the ATC batch event is timed on the
+ * wall clock, as it measures real decision-making cost. Every helper checks shouldCommit() before
+ * filling an event, so with no recording running the JIT removes the event entirely.
+ * Record a run with -XX:StartFlightRecording=filename=airport.jfr and read it with jfr or JMC.
+ */
+final class FlightRecorderEvents {
+    private static final String CATEGORY = "Asia Pacific Airport";
+
+    private FlightRecorderEvents() {}
+
+    static void contention(
+            Airplane airplane,
+            RunwayScheduler runwayScheduler,
+            GateHandler gateHandler,
+            int queueDepth,
+            long simulatedTime
+    ) {
+        Contention event = new Contention();
+        if (event.shouldCommit()) {
+            AirplaneAction action = airplane.getCurrentActivity().getAction();
+            event.airplaneId = airplane.getId();
+            event.action = action.name();
+            if (!runwayScheduler.hasAvailableRunway(action)) {
+                event.resource = "Runway";
+            } else if (action == AirplaneAction.LANDING && !gateHandler.hasCompatibleGate(airplane.getAircraftClass())) {
+                event.resource = "Gate";
+            } else {
+                event.resource = "Queue";
+            }
+            event.queueDepth = queueDepth;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+
+    static void approval(Airplane airplane, Runway runway, long simulatedWait, long simulatedTime) {
+        Approval event = new Approval();
+        if (event.shouldCommit()) {
+            AirplaneActivity airplaneActivity = airplane.getCurrentActivity();
+            event.airplaneId = airplane.getId();
+            event.action = airplaneActivity.getAction().name();
+            event.isEmergency = airplaneActivity.isEmergency();
+            event.runwayId = runway.getId();
+            event.gateId = airplaneActivity.getAction() == AirplaneAction.LANDING ? airplane.getAssignedGateId() : 0;
+            event.simulatedWait = simulatedWait;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+
+    static void refuelWait(Airplane airplane, RefuelTruck refuelTruck, long simulatedWait, long simulatedTime) {
+        RefuelWait event = new RefuelWait();
+        if (event.shouldCommit()) {
+            event.airplaneId = airplane.getId();
+            event.truckId = refuelTruck.getId();
+            event.fuel = airplane.getFuelDemand();
+            event.simulatedWait = simulatedWait;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+
+    static void turnaroundPhase(
+            Airplane airplane,
+            TurnaroundTask task,
+            long simulatedStartOffset,
+            long simulatedDuration,
+            long simulatedTime
+    ) {
+        TurnaroundPhase event = new TurnaroundPhase();
+        if (event.shouldCommit()) {
+            event.airplaneId = airplane.getId();
+            event.phase = task.getName();
+            event.simulatedStartOffset = simulatedStartOffset;
+            event.simulatedDuration = simulatedDuration;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+
+    static void turnaround(Airplane airplane, Turnaround turnaround, long simulatedTime) {
+        TurnaroundCompleted event = new TurnaroundCompleted();
+        if (event.shouldCommit()) {
+            StringBuilder criticalPath = new StringBuilder();
+            for (TurnaroundTask task : turnaround.getCriticalPath()) {
+                if (criticalPath.length() > 0) {
+                    criticalPath.append(" -> ");
+                }
+                criticalPath.append(task.getName());
+            }
+            event.airplaneId = airplane.getId();
+            event.simulatedDuration = turnaround.getDuration();
+            event.criticalPath = criticalPath.toString();
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+
+    static ControllerBatch controllerBatchStarted() {
+        ControllerBatch event = new ControllerBatch();
+        event.begin();
+        return event;
+    }
+
+    static void controllerBatchFinished(ControllerBatch event, long commandCount, long simulatedTime) {
+        if (event.shouldCommit()) {
+            event.commandCount = commandCount;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+
+    @Name("asia.pacific.airport.Contention")
+    @Label("Resource Contention")
+    @Category({CATEGORY, "ATC"})
+    @Description("A request found its runway or gate taken, or others queued ahead, and joined the ATC queue.")
+    @StackTrace(false)
+    static class Contention extends Event {
+        @Label("Airplane")
+        int airplaneId;
+
+        @Label("Action")
+        String action;
+
+        @Label("Resource")
+        String resource;
+
+        @Label("Queue Depth")
+        int queueDepth;
+
+        @Label("Simulated Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedTime;
+    }
+
+    @Name("asia.pacific.airport.Approval")
+    @Label("Runway Approval")
+    @Category({CATEGORY, "ATC"})
+    @Description("ATC granted a runway, and a gate for landings, after the simulated wait.")
+    @StackTrace(false)
+    static class Approval extends Event {
+        @Label("Airplane")
+        int airplaneId;
+
+        @Label("Action")
+        String action;
+
+        @Label("Emergency")
+        boolean isEmergency;
+
+        @Label("Runway")
+        int runwayId;
+
+        @Label("Gate")
+        int gateId;
+
+        @Label("Simulated Wait")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedWait;
+
+        @Label("Simulated Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedTime;
+    }
+
+    @Name("asia.pacific.airport.RefuelWait")
+    @Label("Refuel Wait")
+    @Category({CATEGORY, "Ground Services"})
+    @Description("A refuel truck reached an airplane after the simulated wait.")
+    @StackTrace(false)
+    static class RefuelWait extends Event {
+        @Label("Airplane")
+        int airplaneId;
+
+        @Label("Refuel Truck")
+        int truckId;
+
+        @Label("Fuel (litres)")
+        long fuel;
+
+        @Label("Simulated Wait")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedWait;
+
+        @Label("Simulated Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedTime;
+    }
+
+    @Name("asia.pacific.airport.TurnaroundPhase")
+    @Label("Turnaround Phase")
+    @Category({CATEGORY, "Ground Services"})
+    @Description("One service of an airplane's turnaround finished.")
+    @StackTrace(false)
+    static class TurnaroundPhase extends Event {
+        @Label("Airplane")
+        int airplaneId;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Simulated Start Offset")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedStartOffset;
+
+        @Label("Simulated Duration")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedDuration;
+
+        @Label("Simulated Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedTime;
+    }
+
+    @Name("asia.pacific.airport.Turnaround")
+    @Label("Turnaround")
+    @Category({CATEGORY, "Ground Services"})
+    @Description("An airplane's turnaround finished.")
+    @StackTrace(false)
+    static class TurnaroundCompleted extends Event {
+        @Label("Airplane")
+        int airplaneId;
+
+        @Label("Simulated Duration")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedDuration;
+
+        @Label("Critical Path")
+        String criticalPath;
+
+        @Label("Simulated Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedTime;
+    }
+
+    @Name("asia.pacific.airport.ControllerBatch")
+    @Label("ATC Batch")
+    @Category({CATEGORY, "ATC"})
+    @Description("ATC drained a batch of commands from its mailbox; the duration is wall-clock time.")
+    @StackTrace(false)
+    static class ControllerBatch extends Event {
+        @Label("Commands")
+        long commandCount;
+
+        @Label("Simulated Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long simulatedTime;
+    }
+}
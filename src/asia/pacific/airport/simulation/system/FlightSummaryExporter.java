@@ -0,0 +1,214 @@
+package asia.pacific.airport.simulation.system;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Streams an event journal and writes one CSV row per flight: landing wait, taxi to gate,
+ * turnaround and take-off wait, with the gate and runways used. Segments are mapped one at a time
+ * and only flights still on the ground are held in memory; a row is written as soon as its flight
+ * takes off or diverts, and flights that did neither are written at the end with their missing
+ * phases empty.
+ * Usage: FlightSummaryExporter <event journal file> [output.csv]
+ */
+public class FlightSummaryExporter {
+    private static final String CSV_HEADER = "airplane_id,emergency_landing,emergency_take_off,diverted,"
+            + "arriving_passengers,departing_passengers,gate,landing_runway,take_off_runway,"
+            + "landing_requested_s,landing_wait_s,taxi_to_gate_s,turnaround_s,take_off_wait_s,took_off_s";
+    private final String journalPath;
+    private final Map<Integer, FlightSummary> flightsOnGround;
+    private long recordCount;
+    private int segmentCount;
+    private int flightCount;
+
+    public FlightSummaryExporter(String journalPath) {
+        this.journalPath = journalPath;
+        flightsOnGround = new HashMap<>();
+    }
+
+    public void export(Writer output) throws IOException {
+        output.write(CSV_HEADER);
+        output.write(System.lineSeparator());
+
+        Path segmentPath;
+        while (Files.exists(segmentPath = EventJournal.segmentPath(journalPath, segmentCount))) {
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                EventJournal.readHeader(segment, segmentPath);
+                while (segment.hasRemaining()) {
+                    long time = segment.getLong();
+                    int airplaneId = segment.getInt();
+                    FlightEventType eventType = FlightEventType.of(segment.getShort());
+                    short flags = segment.getShort();
+                    int resourceId = segment.getInt();
+                    int value = segment.getInt();
+                    accept(output, time, airplaneId, eventType, flags, resourceId, value);
+                    recordCount++;
+                }
+            }
+            segmentCount++;
+        }
+        if (segmentCount == 0) {
+            throw new IllegalArgumentException("No event journal found at " + EventJournal.segmentPath(journalPath, 0));
+        }
+
+        for (FlightSummary flightSummary : new TreeMap<>(flightsOnGround).values()) {
+            writeRow(output, flightSummary);
+        }
+        flightsOnGround.clear();
+        output.flush();
+    }
+
+    private void accept(
+            Writer output,
+            long time,
+            int airplaneId,
+            FlightEventType eventType,
+            short flags,
+            int resourceId,
+            int value
+    ) throws IOException {
+        FlightSummary flightSummary = flightsOnGround.computeIfAbsent(airplaneId, FlightSummary::new);
+        boolean isEmergency = (flags & EventJournal.EMERGENCY_FLAG) != 0;
+        switch (eventType) {
+            case LANDING_REQUESTED:
+                flightSummary.landingRequestTime = time;
+                flightSummary.arrivingPassengerCount = value;
+                break;
+            case LANDING_APPROVED:
+                flightSummary.landingApprovalTime = time;
+                flightSummary.isEmergencyLanding = isEmergency;
+                flightSummary.landingRunwayId = resourceId;
+                flightSummary.gateId = value;
+                break;
+            case LANDED:
+                flightSummary.landedTime = time;
+                break;
+            case DOCKED:
+                flightSummary.dockedTime = time;
+                break;
+            case TURNAROUND_COMPLETED:
+                flightSummary.turnaroundCompletionTime = time;
+                break;
+            case TAKE_OFF_REQUESTED:
+                flightSummary.takeOffRequestTime = time;
+                flightSummary.departingPassengerCount = value;
+                break;
+            case TAKE_OFF_APPROVED:
+                flightSummary.takeOffApprovalTime = time;
+                flightSummary.isEmergencyTakeOff = isEmergency;
+                flightSummary.takeOffRunwayId = resourceId;
+                break;
+            case TOOK_OFF:
+                flightSummary.tookOffTime = time;
+                writeRow(output, flightSummary);
+                flightsOnGround.remove(airplaneId);
+                break;
+            case DIVERTED:
+                flightSummary.isDiverted = true;
+                writeRow(output, flightSummary);
+                flightsOnGround.remove(airplaneId);
+                break;
+        }
+    }
+
+    private void writeRow(Writer output, FlightSummary flightSummary) throws IOException {
+        StringBuilder row = new StringBuilder(128);
+        row.append(flightSummary.airplaneId).append(',')
+                .append(flightSummary.isEmergencyLanding).append(',')
+                .append(flightSummary.isEmergencyTakeOff).append(',')
+                .append(flightSummary.isDiverted).append(',')
+                .append(flightSummary.arrivingPassengerCount).append(',')
+                .append(flightSummary.departingPassengerCount).append(',')
+                .append(flightSummary.gateId).append(',')
+                .append(flightSummary.landingRunwayId).append(',')
+                .append(flightSummary.takeOffRunwayId).append(',');
+        appendSeconds(row, flightSummary.landingRequestTime, 0).append(',');
+        appendSeconds(row, flightSummary.landingApprovalTime, flightSummary.landingRequestTime).append(',');
+        appendSeconds(row, flightSummary.dockedTime, flightSummary.landedTime).append(',');
+        appendSeconds(row, flightSummary.turnaroundCompletionTime, flightSummary.dockedTime).append(',');
+        appendSeconds(row, flightSummary.takeOffApprovalTime, flightSummary.takeOffRequestTime).append(',');
+        appendSeconds(row, flightSummary.tookOffTime, 0);
+        output.write(row.append(System.lineSeparator()).toString());
+        flightCount++;
+    }
+
+    /* Appends endTime - startTime in seconds, or nothing when either end was never recorded. */
+    private static StringBuilder appendSeconds(StringBuilder row, long endTime, long startTime) {
+        if (endTime >= 0 && startTime >= 0) {
+            row.append(String.format("%.3f", (endTime - startTime) / 1000.0));
+        }
+        return row;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public int getFlightCount() {
+        return flightCount;
+    }
+
+    private static class FlightSummary {
+        private final int airplaneId;
+        private boolean isEmergencyLanding;
+        private boolean isEmergencyTakeOff;
+        private boolean isDiverted;
+        private int arrivingPassengerCount;
+        private int departingPassengerCount;
+        private int gateId;
+        private int landingRunwayId;
+        private int takeOffRunwayId;
+        private long landingRequestTime = -1;
+        private long landingApprovalTime = -1;
+        private long landedTime = -1;
+        private long dockedTime = -1;
+        private long turnaroundCompletionTime = -1;
+        private long takeOffRequestTime = -1;
+        private long takeOffApprovalTime = -1;
+        private long tookOffTime = -1;
+
+        private FlightSummary(int airplaneId) {
+            this.airplaneId = airplaneId;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException("Usage: FlightSummaryExporter <event journal file> [output.csv]");
+        }
+
+        FlightSummaryExporter exporter = new FlightSummaryExporter(args[0]);
+        try (Writer output = args.length == 2 ?
+                Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8) :
+                new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            exporter.export(output);
+        }
+
+        if (args.length == 2) {
+            System.out.printf(
+                    "Exported %d flights from %d records in %d segments to %s%n",
+                    exporter.getFlightCount(),
+                    exporter.getRecordCount(),
+                    exporter.getSegmentCount(),
+                    args[1]
+            );
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Free gates of one aircraft class as a two-level bitmap. Each gate is a bit in a free-slot word,
+ * and a summary bit per word marks words that may still hold a free gate, so the lowest free gate
+ * is found from the first non-zero summary word in a constant number of steps for up to 4096
+ * gates. Both levels are updated with compare-and-set; a summary bit is only a hint, and whoever
+ * clears one re-checks its word afterwards so a concurrent release is never hidden.
+ */
+class FreeGateIndex {
+    private static final int BITS_PER_WORD = Long.SIZE;
+    private final int[] gateIndexes;
+    private final AtomicLongArray freeSlots;
+    private final AtomicLongArray nonEmptyWords;
+    private final AtomicInteger freeSlotCount;
+
+    FreeGateIndex(int[] gateIndexes) {
+        this.gateIndexes = gateIndexes;
+        int wordCount = (gateIndexes.length + BITS_PER_WORD - 1) / BITS_PER_WORD;
+        freeSlots = new AtomicLongArray(wordCount);
+        nonEmptyWords = new AtomicLongArray(Math.max(1, (wordCount + BITS_PER_WORD - 1) / BITS_PER_WORD));
+        for (int wordIndex = 0; wordIndex < wordCount; wordIndex++) {
+            int slotsInWord = Math.min(BITS_PER_WORD, gateIndexes.length - wordIndex * BITS_PER_WORD);
+            freeSlots.set(wordIndex, slotsInWord == BITS_PER_WORD ? -1L : (1L << slotsInWord) - 1);
+            setWordHint(wordIndex);
+        }
+        freeSlotCount = new AtomicInteger(gateIndexes.length);
+    }
+
+    int getFreeCount() {
+        return freeSlotCount.get();
+    }
+
+    /* Summary bits of words 64 * summaryIndex onwards; a set bit marks a word that may hold a free gate. */
+    long getWordHints(int summaryIndex) {
+        return nonEmptyWords.get(summaryIndex);
+    }
+
+    /* Claims the lowest free slot and returns its gate index, or -1 if every gate is taken. */
+    int acquire() {
+        for (int summaryIndex = 0; summaryIndex < nonEmptyWords.length(); summaryIndex++) {
+            long candidateWords = nonEmptyWords.get(summaryIndex);
+            while (candidateWords != 0) {
+                int wordIndex = summaryIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(candidateWords);
+                long freeSlotsInWord = freeSlots.get(wordIndex);
+                while (freeSlotsInWord != 0) {
+                    long lowestFreeSlot = Long.lowestOneBit(freeSlotsInWord);
+                    if (freeSlots.compareAndSet(wordIndex, freeSlotsInWord, freeSlotsInWord & ~lowestFreeSlot)) {
+                        freeSlotCount.decrementAndGet();
+                        return gateIndexes[wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(lowestFreeSlot)];
+                    }
+                    freeSlotsInWord = freeSlots.get(wordIndex);
+                }
+                clearWordHint(wordIndex);
+                candidateWords = nonEmptyWords.get(summaryIndex);
+            }
+        }
+        return -1;
+    }
+
+    void release(int slot) {
+        int wordIndex = slot / BITS_PER_WORD;
+        long slotBit = 1L << (slot % BITS_PER_WORD);
+        long freeSlotsInWord;
+        do {
+            freeSlotsInWord = freeSlots.get(wordIndex);
+        } while (!freeSlots.compareAndSet(wordIndex, freeSlotsInWord, freeSlotsInWord | slotBit));
+        setWordHint(wordIndex);
+        freeSlotCount.incrementAndGet();
+    }
+
+    private void setWordHint(int wordIndex) {
+        int summaryIndex = wordIndex / BITS_PER_WORD;
+        long wordBit = 1L << (wordIndex % BITS_PER_WORD);
+        long hints;
+        do {
+            hints = nonEmptyWords.get(summaryIndex);
+        } while ((hints & wordBit) == 0 && !nonEmptyWords.compareAndSet(summaryIndex, hints, hints | wordBit));
+    }
+
+    private void clearWordHint(int wordIndex) {
+        int summaryIndex = wordIndex / BITS_PER_WORD;
+        long wordBit = 1L << (wordIndex % BITS_PER_WORD);
+        long hints;
+        do {
+            hints = nonEmptyWords.get(summaryIndex);
+        } while ((hints & wordBit) != 0 && !nonEmptyWords.compareAndSet(summaryIndex, hints, hints & ~wordBit));
+
+        if (freeSlots.get(wordIndex) != 0) {
+            setWordHint(wordIndex);
+        }
+    }
+}
@@ -1,40 +1,261 @@
 package asia.pacific.airport.simulation.system;
 
-import static asia.pacific.airport.simulation.system.RefuelTruck.REFUEL_TRUCK_NAME;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/*
+ * Fuel reserve shared by the refuel fleet. Trucks claim one of a limited number of refill bays
+ * and draw from the reserve with compare-and-set on plain counters, so any number of trucks can
+ * be served at once without a lock. Tanker deliveries are credited lazily from the clock: every
+ * resupply interval adds a fixed volume unless it falls inside the supply disruption window, and
+ * a truck that finds the reserve short waits at its bay for the next delivery. Without resupply an
+ * empty reserve is empty for good: the depot is starved, and a truck leaves its bay with whatever
+ * it could draw rather than waiting for fuel that will never come. An unlimited reserve, the
+ * default, never runs short and takes no deliveries.
+ */
 public class FuelDepot implements Logging {
     private static final String FUEL_DEPOT_NAME = "Fuel Depot";
-    public FuelDepot() {}
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final AtomicLong fuelReserve;
+    private final AtomicLong creditedResupplyIntervalCount;
+    private final AtomicInteger freeBayCount;
+    private final SimulationCondition bayCondition;
+    private final AtomicLong totalDispensedFuel;
+    private final AtomicLong totalDeliveredFuel;
+    private final AtomicInteger refillCount;
+    private final AtomicLong totalBayWaitingTime;
+    private final AtomicLong totalBayOccupiedTime;
+    private final AtomicLong totalShortfall;
+    private volatile long starvationTime;
+
+    public FuelDepot(SimulationEngine engine, SimulationConfig config) {
+        this.engine = engine;
+        this.config = config;
+        fuelReserve = new AtomicLong(config.getFuelDepotReserve());
+        creditedResupplyIntervalCount = new AtomicLong(0);
+        freeBayCount = new AtomicInteger(config.getFuelDepotBayCount());
+        bayCondition = new SimulationCondition(engine);
+        totalDispensedFuel = new AtomicLong(0);
+        totalDeliveredFuel = new AtomicLong(0);
+        refillCount = new AtomicInteger(0);
+        totalBayWaitingTime = new AtomicLong(0);
+        totalBayOccupiedTime = new AtomicLong(0);
+        totalShortfall = new AtomicLong(0);
+        starvationTime = -1;
+
+        engine.getMetrics().gauge("fuel.depot.reserve", fuelReserve::get);
+        engine.getMetrics().gauge("fuel.depot.bays.occupied", this::getOccupiedBayCount);
+    }
+
+    public long getFuelReserve() {
+        creditResupplies();
+        return fuelReserve.get();
+    }
+
+    /* True once the reserve has run dry with no resupply scheduled, so no truck can be refilled again. */
+    public boolean isStarved() {
+        return starvationTime >= 0;
+    }
+
+    /* Simulated time at which the depot ran dry, or -1 while it has not. */
+    public long getStarvationTime() {
+        return starvationTime;
+    }
+
+    /* Litres trucks asked for but could not be given once the depot was starved. */
+    public long getTotalShortfall() {
+        return totalShortfall.get();
+    }
+
+    public int getOccupiedBayCount() {
+        return config.getFuelDepotBayCount() - freeBayCount.get();
+    }
 
     public void refill(RefuelTruck refuelTruck) {
+        long arrivalTime = engine.now();
+        acquireBay();
+        long bayStartTime = engine.now();
+        totalBayWaitingTime.addAndGet(bayStartTime - arrivalTime);
+
+        waitForDisruptionEnd();
+
+        long requestedFuel = refuelTruck.getTankCapacity() - refuelTruck.getFuelLevel();
         String refillingLoggingMessage = String.format(
-                "Refilling %s.",
-                REFUEL_TRUCK_NAME
+                "Refilling %s with %d litres.",
+                refuelTruck.getName(),
+                requestedFuel
         );
         log(refillingLoggingMessage);
 
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        long drawnFuel = drawFuel(requestedFuel);
+        while (drawnFuel < requestedFuel) {
+            if (config.getFuelDepotResupplyVolume() == 0) {
+                recordShortfall(refuelTruck, requestedFuel - drawnFuel);
+                break;
+            }
+            waitForResupply(refuelTruck);
+            drawnFuel += drawFuel(requestedFuel - drawnFuel);
         }
 
-        String refillCompletionLoggingMessage = String.format(
-                "Finished refilling %s.",
-                REFUEL_TRUCK_NAME
-        );
+        engine.sleep(config.getDepotRefillDuration());
+        refuelTruck.receiveFuel(drawnFuel);
+        totalDispensedFuel.addAndGet(drawnFuel);
+        refillCount.incrementAndGet();
+
+        String refillCompletionLoggingMessage = config.isFuelDepotReserveUnlimited() ?
+                String.format("Finished refilling %s.", refuelTruck.getName()) :
+                String.format(
+                        "Finished refilling %s, %d litres left in reserve.",
+                        refuelTruck.getName(),
+                        fuelReserve.get()
+                );
         log(refillCompletionLoggingMessage);
 
-        refuelTruck.setFuelSufficient(true);
+        totalBayOccupiedTime.addAndGet(engine.now() - bayStartTime);
+        releaseBay();
     }
 
-    @Override
-    public void log(String loggingMessage) {
+    private void acquireBay() {
+        while (true) {
+            int availableBayCount = freeBayCount.get();
+            if (availableBayCount == 0) {
+                bayCondition.await();
+            } else if (freeBayCount.compareAndSet(availableBayCount, availableBayCount - 1)) {
+                return;
+            }
+        }
+    }
+
+    private void releaseBay() {
+        freeBayCount.incrementAndGet();
+        bayCondition.signalAll();
+    }
+
+    private long drawFuel(long requestedFuel) {
+        if (config.isFuelDepotReserveUnlimited()) {
+            return requestedFuel;
+        }
+
+        creditResupplies();
+        while (true) {
+            long availableFuel = fuelReserve.get();
+            long drawnFuel = Math.min(availableFuel, requestedFuel);
+            if (fuelReserve.compareAndSet(availableFuel, availableFuel - drawnFuel)) {
+                return drawnFuel;
+            }
+        }
+    }
+
+    private void waitForDisruptionEnd() {
+        if (isDisrupted(engine.getAirportTime().getElapsedTime())) {
+            log(LogLevel.WARN, "Fuel supply disrupted, refills are suspended.");
+            engine.sleep(config.getFuelDepotDisruptionEnd() - engine.getAirportTime().getElapsedTime());
+            log("Fuel supply restored.");
+        }
+    }
+
+    private void recordShortfall(RefuelTruck refuelTruck, long shortfall) {
+        if (!isStarved()) {
+            starvationTime = engine.getAirportTime().getElapsedTime();
+            log(LogLevel.WARN, "Fuel reserve exhausted and no resupply is scheduled, the depot has run dry.");
+        }
+        totalShortfall.addAndGet(shortfall);
+
+        String shortfallLoggingMessage = String.format(
+                "%s leaves %d litres short of a full tank.",
+                refuelTruck.getName(),
+                shortfall
+        );
+        log(LogLevel.WARN, shortfallLoggingMessage);
+    }
+
+    private void waitForResupply(RefuelTruck refuelTruck) {
+        long elapsedTime = engine.getAirportTime().getElapsedTime();
+        long nextResupplyTime = nextResupplyTime(elapsedTime);
+        String waitingLoggingMessage = String.format(
+                "Fuel reserve exhausted, %s waits %.3fs for the next delivery.",
+                refuelTruck.getName(),
+                (nextResupplyTime - elapsedTime) / 1000.0
+        );
+        log(LogLevel.WARN, waitingLoggingMessage);
+        engine.sleep(nextResupplyTime - elapsedTime);
+    }
+
+    private boolean isDisrupted(long elapsedTime) {
+        return elapsedTime >= config.getFuelDepotDisruptionStart() && elapsedTime < config.getFuelDepotDisruptionEnd();
+    }
+
+    private long nextResupplyTime(long elapsedTime) {
+        long resupplyInterval = config.getFuelDepotResupplyInterval();
+        long nextResupplyTime = (elapsedTime / resupplyInterval + 1) * resupplyInterval;
+        if (isDisrupted(nextResupplyTime)) {
+            long disruptionEnd = config.getFuelDepotDisruptionEnd();
+            nextResupplyTime = (disruptionEnd + resupplyInterval - 1) / resupplyInterval * resupplyInterval;
+        }
+        return nextResupplyTime;
+    }
+
+    /* Adds every delivery due since the last credit; a failed CAS means another caller credited them. */
+    private void creditResupplies() {
+        if (config.getFuelDepotResupplyVolume() == 0 || config.isFuelDepotReserveUnlimited()) {
+            return;
+        }
+
+        long dueIntervalCount = engine.getAirportTime().getElapsedTime() / config.getFuelDepotResupplyInterval();
+        long creditedIntervalCount = creditedResupplyIntervalCount.get();
+        if (dueIntervalCount > creditedIntervalCount
+                && creditedResupplyIntervalCount.compareAndSet(creditedIntervalCount, dueIntervalCount)) {
+            long deliveryCount = countDeliveries(dueIntervalCount) - countDeliveries(creditedIntervalCount);
+            long deliveredFuel = deliveryCount * config.getFuelDepotResupplyVolume();
+            fuelReserve.addAndGet(deliveredFuel);
+            totalDeliveredFuel.addAndGet(deliveredFuel);
+        }
+    }
+
+    /* Deliveries among the first intervalCount resupply intervals that fall outside the disruption window. */
+    private long countDeliveries(long intervalCount) {
+        long resupplyInterval = config.getFuelDepotResupplyInterval();
+        long firstDisruptedInterval = Math.max(
+                1,
+                (config.getFuelDepotDisruptionStart() + resupplyInterval - 1) / resupplyInterval
+        );
+        long lastDisruptedInterval = Math.min(
+                intervalCount,
+                (config.getFuelDepotDisruptionEnd() + resupplyInterval - 1) / resupplyInterval - 1
+        );
+        return intervalCount - Math.max(0, lastDisruptedInterval - firstDisruptedInterval + 1);
+    }
+
+    public void printStatistics() {
+        long elapsedTime = engine.getAirportTime().getElapsedTime();
+        int refillCount = this.refillCount.get();
+
+        System.out.printf(
+                "Fuel depot\t\t\t: %d refills, %d litres dispensed, %d litres delivered, %s in reserve%n",
+                refillCount,
+                totalDispensedFuel.get(),
+                totalDeliveredFuel.get(),
+                config.isFuelDepotReserveUnlimited() ? "unlimited" : getFuelReserve() + " litres"
+        );
         System.out.printf(
-                "%s %s: %s%n",
-                AirportTime.getCurrentTimestamp(),
-                FUEL_DEPOT_NAME,
-                loggingMessage
+                "Fuel depot bays\t\t\t: %d bays, %.1f%% utilisation, %.3fs average wait for a bay%n",
+                config.getFuelDepotBayCount(),
+                elapsedTime > 0 ?
+                        100.0 * totalBayOccupiedTime.get() / (elapsedTime * config.getFuelDepotBayCount()) : 0.0,
+                refillCount > 0 ? totalBayWaitingTime.get() / 1000.0 / refillCount : 0.0
         );
+        if (isStarved()) {
+            System.out.printf(
+                    "Fuel depot starvation\t\t: ran dry at %.3fs, %d litres short%n",
+                    starvationTime / 1000.0,
+                    totalShortfall.get()
+            );
+        }
+    }
+
+    @Override
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, FUEL_DEPOT_NAME, loggingMessage);
     }
 }
@@ -4,16 +4,30 @@ import static java.util.Objects.isNull;
 
 public class Gate implements Logging {
     private final int id;
-    private Airplane airplane;
+    private final String name;
+    private final AircraftClass aircraftClass;
+    private final SimulationEngine engine;
+    private volatile Airplane airplane;
 
-    public Gate(int id) {
+    public Gate(int id, SimulationEngine engine) {
+        this(id, AircraftClass.NARROW_BODY, engine);
+    }
+
+    public Gate(int id, AircraftClass aircraftClass, SimulationEngine engine) {
         this.id = id;
+        name = String.format("Gate %d", id);
+        this.aircraftClass = aircraftClass;
+        this.engine = engine;
     }
 
     public int getId() {
         return id;
     }
 
+    public AircraftClass getAircraftClass() {
+        return aircraftClass;
+    }
+
     public boolean isOccupied() {
         return !isNull(airplane);
     }
@@ -23,34 +37,31 @@ public class Gate implements Logging {
     }
 
     public void setAirplane(Airplane airplane) {
-        if (airplane == null) {
-            String gateUnoccupationLoggingMessage = String.format(
-                    "Unoccupied by %s.",
-                    this.airplane.getName()
-            );
-            log(gateUnoccupationLoggingMessage);
-        } else {
-            String gateOccupationLoggingMessage = String.format(
-                    "Gate is not occupied, can be assigned to %s for docking.",
-                    airplane.getName()
-            );
-            log(gateOccupationLoggingMessage);
-        };
+        if (engine.isLoggable(LogLevel.INFO)) {
+            if (airplane == null) {
+                String gateUnoccupationLoggingMessage = String.format(
+                        "Unoccupied by %s.",
+                        this.airplane.getName()
+                );
+                log(gateUnoccupationLoggingMessage);
+            } else {
+                String gateOccupationLoggingMessage = String.format(
+                        "Gate is not occupied, can be assigned to %s for docking.",
+                        airplane.getName()
+                );
+                log(gateOccupationLoggingMessage);
+            }
+        }
 
         this.airplane = airplane;
     }
 
     public String getName() {
-        return String.format("Gate %d", id);
+        return name;
     }
 
     @Override
-    public void log(String loggingMessage) {
-        System.out.printf(
-                "%s %s: %s%n",
-                AirportTime.getCurrentTimestamp(),
-                getName(),
-                loggingMessage
-        );
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, getName(), loggingMessage);
     }
 }
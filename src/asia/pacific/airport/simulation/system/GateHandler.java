@@ -1,19 +1,63 @@
 package asia.pacific.airport.simulation.system;
 
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/*
+ * Lock-free gate allocator. Gates are grouped by the largest aircraft class they can take, and
+ * each group keeps its free gates in a FreeGateIndex, so finding a compatible gate is a bitmap
+ * lookup in the airplane's own class, then in each larger class, and never a scan of the gates.
+ * Smaller airplanes only spill onto larger gates once their own class is full. The gate an
+ * airplane was given is kept on the airplane itself, which makes release a direct lookup.
+ */
 public class GateHandler {
-    public static final int GATE_CAPACITY = 3;
+    private static final AircraftClass[] AIRCRAFT_CLASSES = AircraftClass.values();
+    private final int gateCapacity;
     private final AtomicReferenceArray<Gate> gates;
-    final Semaphore gateSemaphore;
+    private final FreeGateIndex[] freeGateIndexes;
+    private final int[] gateSlots;
+    private final AtomicInteger freeGateCount;
 
-    public GateHandler() {
-        gateSemaphore = new Semaphore(GATE_CAPACITY);
-        gates = new AtomicReferenceArray<>(new Gate[GATE_CAPACITY]);
-        for (int i = 0; i < GATE_CAPACITY; i++) {
-            gates.set(i, new Gate(i + 1));
+    public GateHandler(SimulationEngine engine, int gateCapacity) {
+        this(engine, gateCapacity, 0);
+    }
+
+    /* The highest-numbered wideBodyGateCount gates take wide-body aircraft. */
+    public GateHandler(SimulationEngine engine, int gateCapacity, int wideBodyGateCount) {
+        this.gateCapacity = gateCapacity;
+        gates = new AtomicReferenceArray<>(new Gate[gateCapacity]);
+        for (int i = 0; i < gateCapacity; i++) {
+            AircraftClass aircraftClass = i < gateCapacity - wideBodyGateCount ?
+                    AircraftClass.NARROW_BODY :
+                    AircraftClass.WIDE_BODY;
+            gates.set(i, new Gate(i + 1, aircraftClass, engine));
+        }
+
+        int[] classGateCounts = new int[AIRCRAFT_CLASSES.length];
+        gateSlots = new int[gateCapacity];
+        for (int i = 0; i < gateCapacity; i++) {
+            gateSlots[i] = classGateCounts[gates.get(i).getAircraftClass().ordinal()]++;
+        }
+
+        freeGateIndexes = new FreeGateIndex[AIRCRAFT_CLASSES.length];
+        for (AircraftClass aircraftClass : AIRCRAFT_CLASSES) {
+            int[] gateIndexes = new int[classGateCounts[aircraftClass.ordinal()]];
+            for (int i = 0; i < gateCapacity; i++) {
+                if (gates.get(i).getAircraftClass() == aircraftClass) {
+                    gateIndexes[gateSlots[i]] = i;
+                }
+            }
+            freeGateIndexes[aircraftClass.ordinal()] = new FreeGateIndex(gateIndexes);
         }
+        freeGateCount = new AtomicInteger(gateCapacity);
+    }
+
+    public int getGateCapacity() {
+        return gateCapacity;
+    }
+
+    public int getOccupiedGateCount() {
+        return gateCapacity - freeGateCount.get();
     }
 
     public AtomicReferenceArray<Gate> getGates() {
@@ -21,43 +65,49 @@ public class GateHandler {
     }
 
     public boolean gateIsFull() {
-        return gateSemaphore.availablePermits() == 0;
+        return freeGateCount.get() == 0;
     }
 
     public boolean gateIsSufficient() {
-        return gateSemaphore.availablePermits() > 0;
+        return freeGateCount.get() > 0;
+    }
+
+    public boolean hasCompatibleGate(AircraftClass aircraftClass) {
+        for (int i = aircraftClass.ordinal(); i < freeGateIndexes.length; i++) {
+            if (freeGateIndexes[i].getFreeCount() > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public int acquireGate(Airplane airplane) {
-        try {
-            gateSemaphore.acquire(1);
-            for (int i = 0; i < gates.length(); i++) {
-                Gate gate = gates.get(i);
-                if (!gate.isOccupied()) {
-                    gate.setAirplane(airplane);
-                    return gate.getId();
-                }
+        for (int i = airplane.getAircraftClass().ordinal(); i < freeGateIndexes.length; i++) {
+            int gateIndex = freeGateIndexes[i].acquire();
+            if (gateIndex >= 0) {
+                freeGateCount.decrementAndGet();
+                Gate gate = gates.get(gateIndex);
+                gate.setAirplane(airplane);
+                airplane.setAssignedGateId(gate.getId());
+                return gate.getId();
             }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
         }
 
         return -1;
     }
 
     public void releaseGate(Airplane airplane) {
-        gateSemaphore.release(1);
-        for (int i = 0; i < gates.length(); i++) {
-            Gate gate = gates.get(i);
-            if (
-                gate != null &&
-                gate.getAirplane() != null &&
-                gate.getAirplane().getName().equals(airplane.getName())
-            )
-            {
-                gate.setAirplane(null);
-                break;
-            }
+        int gateId = airplane.getAssignedGateId();
+        if (gateId < 1) {
+            return;
         }
+
+        int gateIndex = gateId - 1;
+        Gate gate = gates.get(gateIndex);
+        airplane.setAssignedGateId(-1);
+        gate.setAirplane(null);
+
+        freeGateIndexes[gate.getAircraftClass().ordinal()].release(gateSlots[gateIndex]);
+        freeGateCount.incrementAndGet();
     }
 }
@@ -0,0 +1,182 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+ * Airplanes holding for a landing, with their fuel deadlines in a timing wheel of fixed-width
+ * time buckets. Each hold is linked into the bucket of its next deadline, first its fuel
+ * emergency and then its diversion, and is unlinked in O(1) when the airplane lands. Expiring
+ * visits only the buckets that have ended since the last call, so checking deadlines costs O(1)
+ * per bucket plus the holds actually due, however many airplanes are holding. Deadlines are
+ * acted on at the end of their bucket, up to one bucket duration late. Buckets are counted from
+ * the airport's start time so that runs of the same scenario expire on the same boundaries. Like
+ * the rest of ATC, the stack is only touched by the controller.
+ */
+public class HoldingStack {
+    private final long startTime;
+    private final long bucketDuration;
+    private final Hold[] buckets;
+    private final Map<Airplane, Hold> holds;
+    private long nextBucket;
+    private long enteredCount;
+    private long fuelEmergencyCount;
+    private long diversionCount;
+    private int maximumSize;
+
+    /* horizon is the furthest a deadline can lie beyond the time its airplane enters the stack. */
+    public HoldingStack(long startTime, long bucketDuration, long horizon) {
+        if (bucketDuration <= 0) {
+            throw new IllegalArgumentException("Holding buckets must be at least 1 ms wide.");
+        }
+        this.startTime = startTime;
+        this.bucketDuration = bucketDuration;
+        buckets = new Hold[Math.toIntExact(horizon / bucketDuration + 3)];
+        holds = new IdentityHashMap<>();
+        nextBucket = 0;
+    }
+
+    public boolean isEmpty() {
+        return holds.isEmpty();
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    public boolean contains(Airplane airplane) {
+        return holds.containsKey(airplane);
+    }
+
+    public long getEnteredCount() {
+        return enteredCount;
+    }
+
+    public long getFuelEmergencyCount() {
+        return fuelEmergencyCount;
+    }
+
+    public long getDiversionCount() {
+        return diversionCount;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /* The time at which the next bucket ends and expire has work to do. */
+    public long getNextExpiryTime() {
+        return startTime + (nextBucket + 1) * bucketDuration;
+    }
+
+    public void enter(Airplane airplane, long time, long fuelEmergencyTime, long diversionTime, boolean isEmergency) {
+        if (holds.containsKey(airplane)) {
+            throw new IllegalStateException(airplane.getName() + " is already holding.");
+        }
+        if (holds.isEmpty()) {
+            nextBucket = bucketOf(time);
+        }
+
+        Hold hold = new Hold(airplane, diversionTime, isEmergency);
+        holds.put(airplane, hold);
+        link(hold, isEmergency ? diversionTime : fuelEmergencyTime);
+        enteredCount++;
+        maximumSize = Math.max(maximumSize, holds.size());
+    }
+
+    /* Removes an airplane that has been cleared to land; returns false if it was not holding. */
+    public boolean leave(Airplane airplane) {
+        Hold hold = holds.remove(airplane);
+        if (hold == null) {
+            return false;
+        }
+        unlink(hold);
+        return true;
+    }
+
+    /*
+     * Acts on every deadline in the buckets that have ended by time. An airplane past its fuel
+     * emergency deadline is handed to onFuelEmergency and stays holding; one past its diversion
+     * deadline leaves the stack and is handed to onDiversion. The handlers must not enter or
+     * leave airplanes.
+     */
+    public void expire(long time, Consumer<Airplane> onFuelEmergency, Consumer<Airplane> onDiversion) {
+        while (getNextExpiryTime() <= time && !holds.isEmpty()) {
+            int slot = (int) (nextBucket % buckets.length);
+            Hold hold = buckets[slot];
+            buckets[slot] = null;
+            nextBucket++;
+
+            while (hold != null) {
+                Hold next = hold.next;
+                hold.previous = null;
+                hold.next = null;
+                if (!hold.isEmergency) {
+                    hold.isEmergency = true;
+                    fuelEmergencyCount++;
+                    onFuelEmergency.accept(hold.airplane);
+                    if (bucketOf(hold.diversionTime) >= nextBucket) {
+                        link(hold, hold.diversionTime);
+                        hold = next;
+                        continue;
+                    }
+                }
+                holds.remove(hold.airplane);
+                diversionCount++;
+                onDiversion.accept(hold.airplane);
+                hold = next;
+            }
+        }
+        if (holds.isEmpty()) {
+            nextBucket = bucketOf(time);
+        }
+    }
+
+    private long bucketOf(long time) {
+        return (time - startTime) / bucketDuration;
+    }
+
+    private void link(Hold hold, long deadline) {
+        long bucket = Math.max(bucketOf(deadline), nextBucket);
+        if (bucket - nextBucket >= buckets.length) {
+            throw new IllegalArgumentException(String.format(
+                    "%s has a holding deadline beyond the holding horizon.", hold.airplane.getName()
+            ));
+        }
+        hold.slot = (int) (bucket % buckets.length);
+        hold.next = buckets[hold.slot];
+        if (hold.next != null) {
+            hold.next.previous = hold;
+        }
+        buckets[hold.slot] = hold;
+    }
+
+    private void unlink(Hold hold) {
+        if (hold.previous != null) {
+            hold.previous.next = hold.next;
+        } else if (buckets[hold.slot] == hold) {
+            buckets[hold.slot] = hold.next;
+        }
+        if (hold.next != null) {
+            hold.next.previous = hold.previous;
+        }
+        hold.previous = null;
+        hold.next = null;
+    }
+
+    private static class Hold {
+        private final Airplane airplane;
+        private final long diversionTime;
+        private boolean isEmergency;
+        private int slot;
+        private Hold previous;
+        private Hold next;
+
+        private Hold(Airplane airplane, long diversionTime, boolean isEmergency) {
+            this.airplane = airplane;
+            this.diversionTime = diversionTime;
+            this.isEmergency = isEmergency;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Fixed-memory, HDR-style latency histogram. Values below 256 get their own bucket; larger values
+ * share log-linear buckets of 128 sub-buckets per power of two, which bounds the relative error
+ * of any reported percentile to under 1%. Recording is striped across several AtomicLongArrays to
+ * keep concurrent recorders off each other's cache lines; stripes are only merged when a
+ * snapshot is taken. Memory does not depend on how many values are recorded.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int MAXIMUM_VALUE_BITS = 42;
+    static final long MAXIMUM_TRACKABLE_VALUE = (1L << MAXIMUM_VALUE_BITS) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAXIMUM_TRACKABLE_VALUE) + 1;
+    private static final int MAXIMUM_STRIPE_COUNT = 8;
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private final LongAdder totalCount;
+    private final LongAdder totalValue;
+    private final LongAccumulator minimumValue;
+    private final LongAccumulator maximumValue;
+
+    public LatencyHistogram() {
+        int stripeCount = Integer.highestOneBit(Math.min(
+                MAXIMUM_STRIPE_COUNT,
+                Runtime.getRuntime().availableProcessors()
+        ));
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+        stripeMask = stripeCount - 1;
+        totalCount = new LongAdder();
+        totalValue = new LongAdder();
+        minimumValue = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        maximumValue = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        long boundedValue = Math.max(0, Math.min(value, MAXIMUM_TRACKABLE_VALUE));
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        stripes[stripe].incrementAndGet(indexOf(boundedValue));
+        totalCount.increment();
+        totalValue.add(boundedValue);
+        minimumValue.accumulate(boundedValue);
+        maximumValue.accumulate(boundedValue);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return new Snapshot(counts, totalCount.sum(), totalValue.sum(), minimumValue.get(), maximumValue.get());
+    }
+
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long minimum;
+        private final long maximum;
+
+        private Snapshot(long[] counts, long count, long total, long minimum, long maximum) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        public static Snapshot empty() {
+            return new Snapshot(new long[BUCKET_COUNT], 0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+
+        public Snapshot merge(Snapshot other) {
+            long[] mergedCounts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                mergedCounts[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(
+                    mergedCounts,
+                    count + other.count,
+                    total + other.total,
+                    Math.min(minimum, other.minimum),
+                    Math.max(maximum, other.maximum)
+            );
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMinimum() {
+            return count == 0 ? 0 : minimum;
+        }
+
+        public long getMaximum() {
+            return count == 0 ? 0 : maximum;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0.0 : (double) total / count;
+        }
+
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long targetCount = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                cumulativeCount += counts[i];
+                if (cumulativeCount >= targetCount) {
+                    return Math.max(minimum, Math.min(highestValueOf(i), maximum));
+                }
+            }
+            return maximum;
+        }
+    }
+}
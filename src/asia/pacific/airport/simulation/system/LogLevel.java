@@ -0,0 +1,8 @@
+package asia.pacific.airport.simulation.system;
+
+public enum LogLevel {
+    OFF,
+    WARN,
+    INFO,
+    DEBUG
+}
@@ -1,5 +1,9 @@
 package asia.pacific.airport.simulation.system;
 
 public interface Logging {
-    public void log(String loggingMessage);
+    public default void log(String loggingMessage) {
+        log(LogLevel.INFO, loggingMessage);
+    }
+
+    public void log(LogLevel logLevel, String loggingMessage);
 }
@@ -0,0 +1,27 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * Sink for live simulation metrics. Components take their counters once, when they are built,
+ * and update them on their hot paths; gauges are only evaluated when a metric is read.
+ */
+public interface MetricsRegistry {
+    LongAdder counter(String name);
+
+    void gauge(String name, Supplier<Number> value);
+
+    static MetricsRegistry disabled() {
+        return new MetricsRegistry() {
+            @Override
+            public LongAdder counter(String name) {
+                return new LongAdder();
+            }
+
+            @Override
+            public void gauge(String name, Supplier<Number> value) {
+            }
+        };
+    }
+}
@@ -0,0 +1,272 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Runs many isolated simulations in parallel for capacity planning. Every combination of the
+ * swept values (--sweep.<key>=v1,v2,...) is one parameter point, and every point is simulated
+ * --batch.runs times on a fork-join pool of --batch.parallelism workers. Run r of every point
+ * uses the same seed, so points are compared on the same random arrivals. Other arguments are
+ * passed on to every run as in AsiaPacificAirportSimulationSystem, e.g.
+ * --sweep.gate.count=2,3,4 --sweep.runway.count=1,2 --sweep.airplane.arrival.interval.max=1000,3000
+ * Runs that stall before serving every airplane are counted per point, and any stalled run makes
+ * the batch exit with status 1, as its waiting times only cover the flights that got that far.
+ */
+public class MonteCarloBatchRunner {
+    private static final String SWEEP_ARGUMENT = "--sweep.";
+    private static final String RUNS_ARGUMENT = "--batch.runs=";
+    private static final String PARALLELISM_ARGUMENT = "--batch.parallelism=";
+    private final List<String> baseArgs;
+    private final List<Map<String, String>> parameterPoints;
+    private final long[] seeds;
+
+    public MonteCarloBatchRunner(List<String> baseArgs, Map<String, List<String>> sweeps, int runCount) {
+        this.baseArgs = new ArrayList<>(baseArgs);
+        this.baseArgs.add("--virtual");
+        this.baseArgs.add("--" + SimulationConfig.LOG_LEVEL + "=" + LogLevel.OFF);
+
+        SimulationConfig baseConfig = SimulationConfig.load(this.baseArgs.toArray(new String[0]));
+        if (baseConfig.getJournalRecordFile() != null || baseConfig.getJournalReplayFile() != null) {
+            throw new IllegalArgumentException("Journals are not supported in batch runs.");
+        }
+
+        parameterPoints = new ArrayList<>();
+        parameterPoints.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> sweep : sweeps.entrySet()) {
+            List<Map<String, String>> sweptParameterPoints = new ArrayList<>();
+            for (Map<String, String> parameterPoint : parameterPoints) {
+                for (String value : sweep.getValue()) {
+                    Map<String, String> sweptParameterPoint = new LinkedHashMap<>(parameterPoint);
+                    sweptParameterPoint.put(sweep.getKey(), value);
+                    sweptParameterPoints.add(sweptParameterPoint);
+                }
+            }
+            parameterPoints.clear();
+            parameterPoints.addAll(sweptParameterPoints);
+        }
+
+        SplittableRandom seedRandom = new SplittableRandom(baseConfig.getSeed());
+        seeds = new long[runCount];
+        for (int i = 0; i < runCount; i++) {
+            seeds[i] = seedRandom.nextLong();
+        }
+
+        for (Map<String, String> parameterPoint : parameterPoints) {
+            loadConfig(parameterPoint, seeds[0]);
+        }
+    }
+
+    public List<Map<String, String>> getParameterPoints() {
+        return parameterPoints;
+    }
+
+    public List<SimulationResult> run(ForkJoinPool pool) {
+        List<ForkJoinTask<SimulationResult>> batches = new ArrayList<>();
+        for (Map<String, String> parameterPoint : parameterPoints) {
+            batches.add(pool.submit(new BatchTask(parameterPoint, 0, seeds.length)));
+        }
+
+        List<SimulationResult> results = new ArrayList<>();
+        try {
+            for (ForkJoinTask<SimulationResult> batch : batches) {
+                results.add(batch.get());
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return results;
+    }
+
+    private SimulationConfig loadConfig(Map<String, String> parameterPoint, long seed) {
+        List<String> args = new ArrayList<>(baseArgs);
+        for (Map.Entry<String, String> parameter : parameterPoint.entrySet()) {
+            args.add("--" + parameter.getKey() + "=" + parameter.getValue());
+        }
+        args.add("--" + SimulationConfig.SIMULATION_SEED + "=" + seed);
+        return SimulationConfig.load(args.toArray(new String[0]));
+    }
+
+    private SimulationResult runSimulation(Map<String, String> parameterPoint, long seed) {
+        Simulation simulation = new Simulation(
+                loadConfig(parameterPoint, seed),
+                0,
+                SimulationLogger.disabled(),
+                SimulationJournal.disabled(),
+                MetricsRegistry.disabled(),
+                EventJournal.disabled()
+        );
+        simulation.getATC().setReportEnabled(false);
+        return simulation.run();
+    }
+
+    private class BatchTask extends RecursiveTask<SimulationResult> {
+        private static final long serialVersionUID = 1L;
+        private final Map<String, String> parameterPoint;
+        private final int fromRun;
+        private final int toRun;
+
+        private BatchTask(Map<String, String> parameterPoint, int fromRun, int toRun) {
+            this.parameterPoint = parameterPoint;
+            this.fromRun = fromRun;
+            this.toRun = toRun;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (toRun - fromRun == 1) {
+                return runSimulation(parameterPoint, seeds[fromRun]);
+            }
+
+            int middleRun = (fromRun + toRun) >>> 1;
+            BatchTask secondHalf = new BatchTask(parameterPoint, middleRun, toRun);
+            secondHalf.fork();
+            SimulationResult firstHalfResult = new BatchTask(parameterPoint, fromRun, middleRun).compute();
+            return firstHalfResult.merge(secondHalf.join());
+        }
+    }
+
+    private static void printReport(List<Map<String, String>> parameterPoints, List<SimulationResult> results) {
+        List<String> keys = new ArrayList<>(parameterPoints.get(0).keySet());
+        int[] widths = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            widths[i] = keys.get(i).length();
+            for (Map<String, String> parameterPoint : parameterPoints) {
+                widths[i] = Math.max(widths[i], parameterPoint.get(keys.get(i)).length());
+            }
+        }
+
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            header.append(String.format("%-" + widths[i] + "s  ", keys.get(i)));
+        }
+        System.out.printf(
+                "%s%6s %8s %9s %9s %10s %10s %10s %10s %10s %10s %10s%n",
+                header,
+                "runs", "stalled", "planes", "expected", "land avg", "land p50", "land p90", "land p99", "land max", "t/o avg", "t/o p99"
+        );
+
+        SimulationResult overallResult = null;
+        for (int i = 0; i < parameterPoints.size(); i++) {
+            StringBuilder parameters = new StringBuilder();
+            for (int j = 0; j < keys.size(); j++) {
+                parameters.append(String.format("%-" + widths[j] + "s  ", parameterPoints.get(i).get(keys.get(j))));
+            }
+            printResult(parameters.toString(), results.get(i));
+            overallResult = overallResult == null ? results.get(i) : overallResult.merge(results.get(i));
+        }
+
+        if (parameterPoints.size() > 1) {
+            StringBuilder allLabel = new StringBuilder(String.format("%-" + widths[0] + "s  ", "all"));
+            for (int i = 1; i < keys.size(); i++) {
+                allLabel.append(String.format("%-" + widths[i] + "s  ", ""));
+            }
+            printResult(allLabel.toString(), overallResult);
+        }
+    }
+
+    private static void printResult(String label, SimulationResult result) {
+        LatencyHistogram.Snapshot landingWaitingTime = result.getWaitingTime(AirplaneAction.LANDING);
+        LatencyHistogram.Snapshot takeOffWaitingTime = result.getWaitingTime(AirplaneAction.TAKE_OFF);
+        System.out.printf(
+                "%s%6d %8d %9d %9d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                label,
+                result.getRunCount(),
+                result.getStalledRunCount(),
+                result.getAirplaneCount(),
+                result.getExpectedAirplaneCount(),
+                landingWaitingTime.getMean() / 1000.0,
+                landingWaitingTime.getValueAtPercentile(50) / 1000.0,
+                landingWaitingTime.getValueAtPercentile(90) / 1000.0,
+                landingWaitingTime.getValueAtPercentile(99) / 1000.0,
+                landingWaitingTime.getMaximum() / 1000.0,
+                takeOffWaitingTime.getMean() / 1000.0,
+                takeOffWaitingTime.getValueAtPercentile(99) / 1000.0
+        );
+    }
+
+    private static int parseCount(String arg, String prefix) {
+        try {
+            int count = Integer.parseInt(arg.substring(prefix.length()).trim());
+            if (count < 1) {
+                throw new IllegalArgumentException(arg + " must be at least 1.");
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(arg + " must be a number.", e);
+        }
+    }
+
+    public static void main(String[] args) {
+        List<String> baseArgs = new ArrayList<>();
+        Map<String, List<String>> sweeps = new LinkedHashMap<>();
+        int runCount = 100;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            if (arg.startsWith(RUNS_ARGUMENT)) {
+                runCount = parseCount(arg, RUNS_ARGUMENT);
+            } else if (arg.startsWith(PARALLELISM_ARGUMENT)) {
+                parallelism = parseCount(arg, PARALLELISM_ARGUMENT);
+            } else if (arg.startsWith(SWEEP_ARGUMENT) && arg.contains("=")) {
+                int separatorIndex = arg.indexOf('=');
+                sweeps.put(
+                        arg.substring(SWEEP_ARGUMENT.length(), separatorIndex),
+                        Arrays.asList(arg.substring(separatorIndex + 1).split(","))
+                );
+            } else {
+                baseArgs.add(arg);
+            }
+        }
+
+        MonteCarloBatchRunner batchRunner = new MonteCarloBatchRunner(baseArgs, sweeps, runCount);
+        System.out.printf(
+                "Monte Carlo batch: %d parameter points x %d runs, parallelism: %d%n%n",
+                batchRunner.getParameterPoints().size(),
+                runCount,
+                parallelism
+        );
+
+        long startTime = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<SimulationResult> results;
+        try {
+            results = batchRunner.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+        long batchTime = System.currentTimeMillis() - startTime;
+
+        printReport(batchRunner.getParameterPoints(), results);
+        System.out.printf(
+                "%nWaiting times in seconds. %d simulations in %.3f seconds (%.1f simulations/s).%n",
+                results.size() * runCount,
+                batchTime / 1000.0,
+                batchTime > 0 ? results.size() * runCount * 1000.0 / batchTime : 0.0
+        );
+
+        int stalledRunCount = 0;
+        for (SimulationResult result : results) {
+            stalledRunCount += result.getStalledRunCount();
+        }
+        if (stalledRunCount > 0) {
+            System.out.printf(
+                    "%d of %d simulations stalled before serving every airplane; "
+                            + "their waiting times only cover the flights that got that far.%n",
+                    stalledRunCount,
+                    results.size() * runCount
+            );
+            System.exit(1);
+        }
+    }
+}
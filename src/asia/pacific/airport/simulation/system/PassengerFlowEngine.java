@@ -0,0 +1,73 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Moves passengers through an airplane's doors as a flow rather than one by one. Each door passes
+ * one passenger per duration.passenger.boarding, and passengers are released in batches of one
+ * passenger.flow.tick worth of door throughput, so a boarding costs one simulation event per
+ * batch and one bulk counter update instead of one of each per passenger. Batches run as
+ * scheduled events rather than in a process, and the returned future completes with the last.
+ */
+public class PassengerFlowEngine {
+    private final ATC atc;
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final int passengersPerDoorPerTick;
+
+    public PassengerFlowEngine(ATC atc, SimulationEngine engine, SimulationConfig config) {
+        this.atc = atc;
+        this.engine = engine;
+        this.config = config;
+        long passengerBoardingDuration = config.getPassengerBoardingDuration();
+        passengersPerDoorPerTick = passengerBoardingDuration == 0 ?
+                Integer.MAX_VALUE :
+                (int) Math.max(1, Math.min(Integer.MAX_VALUE, config.getPassengerFlowTick() / passengerBoardingDuration));
+    }
+
+    public CompletableFuture<Void> board(Airplane airplane, BoardType boardType, int passengerCount) {
+        CompletableFuture<Void> boarding = new CompletableFuture<>();
+        boardNextBatch(airplane, boardType, passengerCount, 0, boarding);
+        return boarding;
+    }
+
+    private void boardNextBatch(
+            Airplane airplane,
+            BoardType boardType,
+            int passengerCount,
+            int boardedPassengerCount,
+            CompletableFuture<Void> boarding
+    ) {
+        if (boardedPassengerCount >= passengerCount) {
+            boarding.complete(null);
+            return;
+        }
+
+        int doorCount = config.getAirplaneDoorCount();
+        int batchPassengerCount = (int) Math.min(
+                (long) passengersPerDoorPerTick * doorCount,
+                passengerCount - boardedPassengerCount
+        );
+        int passengersPerDoor = (batchPassengerCount + doorCount - 1) / doorCount;
+
+        engine.schedule(passengersPerDoor * config.getPassengerBoardingDuration(), () -> {
+            int batchEndPassengerCount = boardedPassengerCount + batchPassengerCount;
+            if (engine.isLoggable(LogLevel.DEBUG)) {
+                String batchLoggingMessage = String.format(
+                        "Passengers %d-%d are %s the airplane through %d door%s. [%d/%d]",
+                        boardedPassengerCount + 1,
+                        batchEndPassengerCount,
+                        boardType == BoardType.EMBARK ? "embarking" : "disembarking",
+                        Math.min(doorCount, batchPassengerCount),
+                        Math.min(doorCount, batchPassengerCount) == 1 ? "" : "s",
+                        batchEndPassengerCount,
+                        passengerCount
+                );
+                airplane.log(LogLevel.DEBUG, batchLoggingMessage);
+            }
+
+            atc.passengerIncrement(batchPassengerCount);
+            boardNextBatch(airplane, boardType, passengerCount, batchEndPassengerCount, boarding);
+        });
+    }
+}
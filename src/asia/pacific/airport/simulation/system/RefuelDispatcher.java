@@ -0,0 +1,202 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Hands refuel requests to the refuel fleet. A request goes to the least-loaded truck that still
+ * has uncommitted fuel, nearest gate first on a tie; when every tank is spoken for it waits here
+ * until a truck comes back from the depot. Idle trucks may only top up early while no other truck
+ * is at the depot and another truck still has fuel, so refills are staggered across the fleet.
+ */
+public class RefuelDispatcher implements Logging {
+    private static final String REFUEL_DISPATCHER_NAME = "Refuel Dispatcher";
+    private final ATC atc;
+    private final FuelDepot fuelDepot;
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final List<RefuelTruck> refuelTrucks;
+    private final Deque<RefuelRequest> unassignedRefuelQueue;
+    private final LatencyHistogram fuelWaitingTime;
+    private final LongAdder pendingRefuelCount;
+    private int refillingTruckCount;
+
+    public RefuelDispatcher(ATC atc, FuelDepot fuelDepot, SimulationEngine engine, SimulationConfig config) {
+        this.atc = atc;
+        this.fuelDepot = fuelDepot;
+        this.engine = engine;
+        this.config = config;
+        List<RefuelTruck> refuelTrucks = new ArrayList<>(config.getRefuelTruckCount());
+        for (int i = 0; i < config.getRefuelTruckCount(); i++) {
+            refuelTrucks.add(new RefuelTruck(i + 1, atc, this, fuelDepot, engine, config));
+        }
+        this.refuelTrucks = Collections.unmodifiableList(refuelTrucks);
+        unassignedRefuelQueue = new ArrayDeque<>();
+        fuelWaitingTime = new LatencyHistogram();
+        refillingTruckCount = 0;
+
+        MetricsRegistry metrics = engine.getMetrics();
+        pendingRefuelCount = metrics.counter("refuel.queue");
+        for (RefuelTruck refuelTruck : refuelTrucks) {
+            metrics.gauge("refuel.truck." + refuelTruck.getId() + ".fuel.level", refuelTruck::getFuelLevel);
+        }
+    }
+
+    public List<RefuelTruck> getRefuelTrucks() {
+        return refuelTrucks;
+    }
+
+    public void requestRefuel(Airplane airplane) {
+        RefuelRequest refuelRequest = new RefuelRequest(airplane, engine.now());
+        pendingRefuelCount.increment();
+        if (!dispatch(refuelRequest)) {
+            unassignedRefuelQueue.add(refuelRequest);
+            logUnassigned(airplane);
+        }
+    }
+
+    /* Takes back a request a truck can no longer cover; it keeps its place ahead of newer ones. */
+    public void returnRequest(RefuelTruck refuelTruck, RefuelRequest refuelRequest) {
+        String returnedLoggingMessage = String.format(
+                "%s is short of fuel and hands %s back.",
+                refuelTruck.getName(),
+                refuelRequest.getAirplane().getName()
+        );
+        log(returnedLoggingMessage);
+
+        if (!dispatch(refuelRequest)) {
+            unassignedRefuelQueue.addFirst(refuelRequest);
+            logUnassigned(refuelRequest.getAirplane());
+        }
+    }
+
+    private void logUnassigned(Airplane airplane) {
+        if (fuelDepot.isStarved()) {
+            String starvedLoggingMessage = String.format(
+                    "No refuel truck has fuel to spare and the fuel depot has run dry, %s cannot be refuelled.",
+                    airplane.getName()
+            );
+            log(LogLevel.WARN, starvedLoggingMessage);
+        } else {
+            String unassignedLoggingMessage = String.format(
+                    "No refuel truck has fuel to spare, %s is waiting for a refilled truck.",
+                    airplane.getName()
+            );
+            log(unassignedLoggingMessage);
+        }
+    }
+
+    private boolean dispatch(RefuelRequest refuelRequest) {
+        RefuelTruck selectedTruck = selectTruck(refuelRequest.getAirplane());
+        if (selectedTruck == null) {
+            return false;
+        }
+
+        if (refuelTrucks.size() > 1) {
+            String dispatchLoggingMessage = String.format(
+                    "Dispatching %s to %s.",
+                    selectedTruck.getName(),
+                    refuelRequest.getAirplane().getName()
+            );
+            log(dispatchLoggingMessage);
+        }
+        selectedTruck.enqueueRequest(refuelRequest);
+        return true;
+    }
+
+    private RefuelTruck selectTruck(Airplane airplane) {
+        int gateId = airplane.getAssignedGateId();
+        RefuelTruck selectedTruck = null;
+        for (RefuelTruck refuelTruck : refuelTrucks) {
+            if (refuelTruck.getUncommittedFuel() < airplane.getFuelDemand()) {
+                continue;
+            }
+            if (selectedTruck == null
+                    || refuelTruck.getLoad() < selectedTruck.getLoad()
+                    || refuelTruck.getLoad() == selectedTruck.getLoad()
+                    && refuelTruck.getDistanceTo(gateId) < selectedTruck.getDistanceTo(gateId)) {
+                selectedTruck = refuelTruck;
+            }
+        }
+        return selectedTruck;
+    }
+
+    public boolean isTopUpAllowed(RefuelTruck refuelTruck) {
+        if (refuelTrucks.size() == 1
+                || refillingTruckCount > 0
+                || !unassignedRefuelQueue.isEmpty()
+                || refuelTruck.getFuelLevel() == refuelTruck.getTankCapacity()
+                || fuelDepot.isStarved()
+                || atc.isAllAirplanesServed()) {
+            return false;
+        }
+
+        for (RefuelTruck otherRefuelTruck : refuelTrucks) {
+            if (otherRefuelTruck != refuelTruck && otherRefuelTruck.getFuelLevel() >= config.getMinimumFuelDemand()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void refillStarted(RefuelTruck refuelTruck) {
+        refillingTruckCount++;
+    }
+
+    public void refillFinished(RefuelTruck refuelTruck) {
+        refillingTruckCount--;
+
+        while (!unassignedRefuelQueue.isEmpty() && dispatch(unassignedRefuelQueue.peek())) {
+            unassignedRefuelQueue.poll();
+        }
+
+        for (RefuelTruck otherRefuelTruck : refuelTrucks) {
+            if (otherRefuelTruck != refuelTruck) {
+                otherRefuelTruck.wake();
+            }
+        }
+    }
+
+    public void addFuelWaitingTime(long waitingTime) {
+        fuelWaitingTime.record(waitingTime);
+        pendingRefuelCount.decrement();
+    }
+
+    public LatencyHistogram.Snapshot getFuelWaitingTime() {
+        return fuelWaitingTime.snapshot();
+    }
+
+    public void printStatistics() {
+        long elapsedTime = engine.getAirportTime().getElapsedTime();
+
+        for (RefuelTruck refuelTruck : refuelTrucks) {
+            System.out.printf(
+                    "%s\t\t: %d refuels, %d refills, %.1f%% utilisation%n",
+                    refuelTruck.getName(),
+                    refuelTruck.getRefuelCount(),
+                    refuelTruck.getRefillCount(),
+                    elapsedTime > 0 ? 100.0 * refuelTruck.getTotalBusyTime() / elapsedTime : 0.0
+            );
+        }
+
+        LatencyHistogram.Snapshot waitingTime = getFuelWaitingTime();
+        System.out.printf(
+                "Fuel waiting time\t\t: %.3fs avg, %.3fs p90, %.3fs max over %d refuels%n",
+                waitingTime.getMean() / 1000.0,
+                waitingTime.getValueAtPercentile(90) / 1000.0,
+                waitingTime.getMaximum() / 1000.0,
+                waitingTime.getCount()
+        );
+
+        fuelDepot.printStatistics();
+    }
+
+    @Override
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, REFUEL_DISPATCHER_NAME, loggingMessage);
+    }
+}
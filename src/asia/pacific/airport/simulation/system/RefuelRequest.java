@@ -0,0 +1,19 @@
+package asia.pacific.airport.simulation.system;
+
+public class RefuelRequest {
+    private final Airplane airplane;
+    private final long requestTime;
+
+    public RefuelRequest(Airplane airplane, long requestTime) {
+        this.airplane = airplane;
+        this.requestTime = requestTime;
+    }
+
+    public Airplane getAirplane() {
+        return airplane;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+}
@@ -1,129 +1,225 @@
 package asia.pacific.airport.simulation.system;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Semaphore;
-
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/*
+ * One truck of the refuel fleet. Requests are handed to it by the RefuelDispatcher; the truck
+ * sleeps on its condition while it has nothing to do and returns to the fuel depot once its tank
+ * is empty, or earlier when the dispatcher lets it top up while the rest of the fleet has fuel.
+ * A refill can come back short once the depot is starved; requests the truck can then no longer
+ * cover go back to the dispatcher.
+ */
 public class RefuelTruck implements Logging, Runnable {
-    public static String REFUEL_TRUCK_NAME = "Refuel Truck";
+    private static final int DEPOT_LOCATION = 0;
+    private final int id;
     private final ATC atc;
+    private final RefuelDispatcher refuelDispatcher;
     private final FuelDepot fuelDepot;
-    private final BlockingQueue<Airplane> pendingRefuelQueue;
-    private boolean isFuelSufficient;
-    private final Object refillLock;
+    private final SimulationEngine engine;
+    private final SimulationConfig config;
+    private final Deque<RefuelRequest> pendingRefuelQueue;
+    private final SimulationCondition pendingRefuelCondition;
+    private boolean isRefilling;
+    private boolean isRefueling;
+    private final long tankCapacity;
+    private volatile long fuelLevel;
+    private long committedFuel;
+    private int location;
     private int refuelCount;
-    private final Semaphore queueSemaphore;
-
-    public RefuelTruck(ATC atc, FuelDepot fuelDepot) {
+    private int refillCount;
+    private long totalBusyTime;
+
+    public RefuelTruck(
+            int id,
+            ATC atc,
+            RefuelDispatcher refuelDispatcher,
+            FuelDepot fuelDepot,
+            SimulationEngine engine,
+            SimulationConfig config
+    ) {
+        this.id = id;
         this.atc = atc;
+        this.refuelDispatcher = refuelDispatcher;
         this.fuelDepot = fuelDepot;
-        pendingRefuelQueue = new ArrayBlockingQueue<>(GateHandler.GATE_CAPACITY);
-        this.isFuelSufficient = true;
-        this.refillLock = new Object();
-        this.refuelCount = 0;
-        this.queueSemaphore = new Semaphore(0);
+        this.engine = engine;
+        this.config = config;
+        pendingRefuelQueue = new ArrayDeque<>();
+        this.pendingRefuelCondition = new SimulationCondition(engine);
+        this.tankCapacity = config.getRefuelTruckCapacity();
+        this.fuelLevel = tankCapacity;
+        this.committedFuel = 0;
+        this.location = DEPOT_LOCATION;
     }
 
-    public boolean isFuelSufficient() {
-        synchronized (refillLock) {
-            return isFuelSufficient;
-        }
+    public int getId() {
+        return id;
     }
 
-    public void setFuelSufficient(boolean isFuelSufficient) {
-        synchronized (refillLock) {
-            this.isFuelSufficient = isFuelSufficient;
-        }
+    public String getName() {
+        return String.format("Refuel Truck %d", id);
     }
 
-    public void waitForRefill() {
-        synchronized (refillLock) {
-            try {
-                while (!isFuelSufficient) {
-                    refillLock.wait();
-                }
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        }
+    public boolean isRefilling() {
+        return isRefilling;
+    }
+
+    public long getTankCapacity() {
+        return tankCapacity;
+    }
+
+    public long getFuelLevel() {
+        return fuelLevel;
+    }
+
+    public void receiveFuel(long fuel) {
+        fuelLevel += fuel;
+    }
+
+    /*
+     * Fuel left once every request already handed to this truck has been served. A refill in
+     * progress counts as a full tank unless the depot is starved; a refill that still comes back
+     * short hands its uncovered requests back.
+     */
+    public long getUncommittedFuel() {
+        return (isRefilling && !fuelDepot.isStarved() ? tankCapacity : fuelLevel) - committedFuel;
+    }
+
+    public int getLoad() {
+        return pendingRefuelQueue.size() + (isRefueling ? 1 : 0);
+    }
+
+    public int getDistanceTo(int gateId) {
+        return Math.abs(location - gateId);
+    }
+
+    public int getRefuelCount() {
+        return refuelCount;
+    }
+
+    public int getRefillCount() {
+        return refillCount;
+    }
+
+    public long getTotalBusyTime() {
+        return totalBusyTime;
     }
 
     private void selfRefill() {
+        long refillStartTime = engine.now();
+        isRefilling = true;
+        refuelDispatcher.refillStarted(this);
+
         log("Return to fuel depot for refilling.");
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        engine.sleep(config.getTruckTravelDuration());
+        location = DEPOT_LOCATION;
         fuelDepot.refill(this);
-        waitForRefill();
+
+        isRefilling = false;
+        refillCount++;
+        totalBusyTime += engine.now() - refillStartTime;
+        returnUncoveredRequests();
         log("Ready to refuel airplanes.");
+        refuelDispatcher.refillFinished(this);
+    }
+
+    /* Hands the latest requests back to the dispatcher until the fuel on board covers the rest. */
+    private void returnUncoveredRequests() {
+        while (committedFuel > fuelLevel) {
+            RefuelRequest refuelRequest = pendingRefuelQueue.pollLast();
+            committedFuel -= refuelRequest.getAirplane().getFuelDemand();
+            refuelDispatcher.returnRequest(this, refuelRequest);
+        }
+    }
+
+    public void enqueueRequest(RefuelRequest refuelRequest) {
+        pendingRefuelQueue.add(refuelRequest);
+        committedFuel += refuelRequest.getAirplane().getFuelDemand();
+        pendingRefuelCondition.signalAll();
+    }
+
+    public void wake() {
+        pendingRefuelCondition.signalAll();
     }
 
-    public void enqueueAirplane(Airplane airplane) {
-        try {
-            pendingRefuelQueue.put(airplane);
-            queueSemaphore.release();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+    public void dequeueRequest() {
+        while (pendingRefuelQueue.isEmpty()) {
+            if (refuelDispatcher.isTopUpAllowed(this)) {
+                log("Topping up while the rest of the fleet has fuel.");
+                selfRefill();
+                continue;
+            }
+            pendingRefuelCondition.await();
         }
+        refuel(pollRequest());
     }
 
-    public void dequeueAirplane() {
-        try {
-            queueSemaphore.acquire();
-            refuel(pendingRefuelQueue.take());
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+    RefuelRequest pollRequest() {
+        RefuelRequest refuelRequest = pendingRefuelQueue.poll();
+        if (refuelRequest != null) {
+            committedFuel -= refuelRequest.getAirplane().getFuelDemand();
         }
+        return refuelRequest;
     }
 
-    private void refuel(Airplane airplane) {
+    private void refuel(RefuelRequest refuelRequest) {
+        Airplane airplane = refuelRequest.getAirplane();
+        if (airplane.getFuelDemand() > fuelLevel) {
+            refuelDispatcher.returnRequest(this, refuelRequest);
+            return;
+        }
+
+        long refuelStartTime = engine.now();
+        isRefueling = true;
+        refuelDispatcher.addFuelWaitingTime(refuelStartTime - refuelRequest.getRequestTime());
+        FlightRecorderEvents.refuelWait(
+                airplane,
+                this,
+                refuelStartTime - refuelRequest.getRequestTime(),
+                engine.getAirportTime().getElapsedTime()
+        );
+
         String refuelingLoggingMessage = String.format(
-                "Refueling %s.",
-                airplane.getName()
+                "Refueling %s with %d litres.",
+                airplane.getName(),
+                airplane.getFuelDemand()
         );
         log(refuelingLoggingMessage);
 
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        engine.sleep(config.getRefuelDuration());
 
         String refuelCompletionLoggingMessage = String.format(
                 "Finished refuelling %s.",
                 airplane.getName()
         );
         log(refuelCompletionLoggingMessage);
+        location = airplane.getAssignedGateId();
+        fuelLevel -= airplane.getFuelDemand();
         refuelCount++;
+        isRefueling = false;
+        totalBusyTime += engine.now() - refuelStartTime;
 
         airplane.setRefueled(true);
 
-        int MAXIMUM_REFUEL_COUNT = 2;
-        if (refuelCount == MAXIMUM_REFUEL_COUNT) {
-            log("Running low on fuel.");
-            selfRefill();
-            refuelCount = 0;
+        if (fuelLevel < config.getLargestFuelDemand()) {
+            if (fuelDepot.isStarved()) {
+                log("Running low on fuel, but the fuel depot has run dry.");
+            } else {
+                log("Running low on fuel.");
+                selfRefill();
+            }
         }
     }
 
     @Override
-    public void log(String loggingMessage) {
-        System.out.printf(
-                "%s %s: %s%n",
-                AirportTime.getCurrentTimestamp(),
-                REFUEL_TRUCK_NAME,
-                loggingMessage
-        );
+    public void log(LogLevel logLevel, String loggingMessage) {
+        engine.log(logLevel, getName(), loggingMessage);
     }
 
     @Override
     public void run() {
-        while (atc.getTotalAirplaneCycleCount() != AsiaPacificAirportSimulationSystem.TOTAL_PLANES) {
-            if (!pendingRefuelQueue.isEmpty()) {
-                dequeueAirplane();
-            }
+        while (!atc.isAllAirplanesServed()) {
+            dequeueRequest();
         }
     }
 }
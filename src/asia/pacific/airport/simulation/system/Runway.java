@@ -0,0 +1,90 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Runway {
+    private final int id;
+    private final RunwayType type;
+    private final AtomicReference<Airplane> occupant;
+    private volatile long occupiedSince;
+    private final AtomicLong totalOccupiedTime;
+    private final AtomicInteger landingCount;
+    private final AtomicInteger takeOffCount;
+
+    public Runway(int id, RunwayType type) {
+        this.id = id;
+        this.type = type;
+        occupant = new AtomicReference<>();
+        totalOccupiedTime = new AtomicLong(0);
+        landingCount = new AtomicInteger(0);
+        takeOffCount = new AtomicInteger(0);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public RunwayType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return String.format("Runway %d", id);
+    }
+
+    public boolean accepts(AirplaneAction action) {
+        switch (type) {
+            case LANDING_ONLY:
+                return action == AirplaneAction.LANDING;
+            case TAKE_OFF_ONLY:
+                return action == AirplaneAction.TAKE_OFF;
+            default:
+                return true;
+        }
+    }
+
+    public boolean isOccupied() {
+        return occupant.get() != null;
+    }
+
+    public Airplane getOccupant() {
+        return occupant.get();
+    }
+
+    public boolean tryOccupy(Airplane airplane, AirplaneAction action, long time) {
+        if (!accepts(action) || !occupant.compareAndSet(null, airplane)) {
+            return false;
+        }
+
+        occupiedSince = time;
+        if (action == AirplaneAction.LANDING) {
+            landingCount.incrementAndGet();
+        } else {
+            takeOffCount.incrementAndGet();
+        }
+        return true;
+    }
+
+    public void release(long time) {
+        totalOccupiedTime.addAndGet(time - occupiedSince);
+        occupant.set(null);
+    }
+
+    public int getLandingCount() {
+        return landingCount.get();
+    }
+
+    public int getTakeOffCount() {
+        return takeOffCount.get();
+    }
+
+    public int getMovementCount() {
+        return landingCount.get() + takeOffCount.get();
+    }
+
+    public long getTotalOccupiedTime() {
+        return totalOccupiedTime.get();
+    }
+}
@@ -0,0 +1,48 @@
+package asia.pacific.airport.simulation.system;
+
+public class RunwayScheduler {
+    private final Runway[] runways;
+
+    public RunwayScheduler(int runwayCount, int landingOnlyRunwayCount, int takeOffOnlyRunwayCount) {
+        runways = new Runway[runwayCount];
+        for (int i = 0; i < runwayCount; i++) {
+            RunwayType runwayType;
+            if (i < landingOnlyRunwayCount) {
+                runwayType = RunwayType.LANDING_ONLY;
+            } else if (i < landingOnlyRunwayCount + takeOffOnlyRunwayCount) {
+                runwayType = RunwayType.TAKE_OFF_ONLY;
+            } else {
+                runwayType = RunwayType.MIXED;
+            }
+            runways[i] = new Runway(i + 1, runwayType);
+        }
+    }
+
+    public Runway[] getRunways() {
+        return runways;
+    }
+
+    public boolean hasAvailableRunway(AirplaneAction action) {
+        for (Runway runway : runways) {
+            if (runway.accepts(action) && !runway.isOccupied()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dedicated runways come first in the array, so they are handed out before mixed runways
+    // and a mixed runway stays free for the other kind of traffic as long as possible.
+    public Runway acquireRunway(Airplane airplane, AirplaneAction action, long time) {
+        for (Runway runway : runways) {
+            if (runway.tryOccupy(airplane, action, time)) {
+                return runway;
+            }
+        }
+        return null;
+    }
+
+    public void releaseRunway(Runway runway, long time) {
+        runway.release(time);
+    }
+}
@@ -0,0 +1,7 @@
+package asia.pacific.airport.simulation.system;
+
+public enum RunwayType {
+    MIXED,
+    LANDING_ONLY,
+    TAKE_OFF_ONLY
+}
@@ -0,0 +1,129 @@
+package asia.pacific.airport.simulation.system;
+
+/*
+ * One airport simulation built from a SimulationConfig: its own engine, ATC, gates, runways,
+ * refuel fleet, fuel depot and arrivals. Simulations share no mutable state, so any number of
+ * them can run side by side in one JVM.
+ */
+public class Simulation {
+    private final SimulationConfig config;
+    private final SimulationEngine engine;
+    private final ATC atc;
+    private final FuelDepot fuelDepot;
+    private final RefuelDispatcher refuelDispatcher;
+    private final PassengerFlowEngine passengerFlowEngine;
+    private final TurnaroundExecutor turnaroundExecutor;
+    private final SimulationRandom random;
+    private final AirplaneStateStore airplaneStateStore;
+    private long firstArrivalSequence;
+
+    public Simulation(
+            SimulationConfig config,
+            long startTime,
+            SimulationLogger logger,
+            SimulationJournal journal,
+            MetricsRegistry metrics,
+            EventJournal eventJournal
+    ) {
+        this.config = config;
+        random = new SimulationRandom(config.getSeed(), journal);
+        engine = new SimulationEngine(config.getMode(), config.getThreadMode(), startTime, logger, journal, metrics, eventJournal);
+
+        atc = new ATC(engine, config);
+        fuelDepot = new FuelDepot(engine, config);
+        refuelDispatcher = new RefuelDispatcher(atc, fuelDepot, engine, config);
+        atc.setRefuelDispatcher(refuelDispatcher);
+        passengerFlowEngine = new PassengerFlowEngine(atc, engine, config);
+        turnaroundExecutor = new TurnaroundExecutor(engine, TurnaroundPlan.standard());
+        atc.setTurnaroundExecutor(turnaroundExecutor);
+        airplaneStateStore = new AirplaneStateStore(
+                atc,
+                refuelDispatcher,
+                passengerFlowEngine,
+                turnaroundExecutor,
+                engine,
+                config,
+                config.getFlightPlanFile() != null ? 0 : config.getAirplaneCount()
+        );
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public ATC getATC() {
+        return atc;
+    }
+
+    public FuelDepot getFuelDepot() {
+        return fuelDepot;
+    }
+
+    public AirplaneStateStore getAirplaneStateStore() {
+        return airplaneStateStore;
+    }
+
+    public SimulationResult run() {
+        for (RefuelTruck refuelTruck : refuelDispatcher.getRefuelTrucks()) {
+            engine.spawnDaemon(refuelTruck.getName(), refuelTruck);
+        }
+
+        if (config.getFlightPlanFile() != null) {
+            new FlightPlanFeeder(
+                    new FlightPlanReader(config.getFlightPlanFile()),
+                    airplaneStateStore,
+                    random
+            ).start();
+        } else {
+            scheduleRandomArrivals();
+        }
+
+        engine.run();
+        return new SimulationResult(
+                atc.getTotalAirplaneCycleCount(),
+                atc.getExpectedAirplaneCount(),
+                atc.isAllAirplanesServed(),
+                atc.getTotalPassengerCycleCount(),
+                engine.getAirportTime().getElapsedTime(),
+                atc.getWaitingTimeRecorder()
+        );
+    }
+
+    /*
+     * Arrivals are created one at a time: each arrival creates its airplane, then draws the next
+     * interval and schedules the next arrival, so airplanes that have not arrived yet take no
+     * memory. Their event sequence numbers are reserved up front, so same-time events still order
+     * as if every arrival had been queued at the start.
+     */
+    private void scheduleRandomArrivals() {
+        firstArrivalSequence = engine.reserveEventSequences(config.getAirplaneCount());
+        engine.schedule(0, firstArrivalSequence, () -> arrive(1));
+    }
+
+    private void arrive(int id) {
+        boolean isEmergency = id == config.getAirplaneCount();
+        SimulationRandom airplaneRandom = random.split(id);
+        Airplane airplane = new Airplane(
+                id,
+                airplaneStateStore,
+                nextAircraftType(airplaneRandom),
+                airplaneRandom,
+                isEmergency
+        );
+        long arrivalInterval = random.nextInt("arrival", 0, config.getMaximumArrivalInterval());
+        if (id < config.getAirplaneCount()) {
+            engine.schedule(arrivalInterval, firstArrivalSequence + id, () -> arrive(id + 1));
+        }
+        engine.start(airplane.getName(), airplane);
+    }
+
+    private AircraftType nextAircraftType(SimulationRandom airplaneRandom) {
+        AircraftType narrowBodyType = airplaneStateStore.getAircraftType(AircraftClass.NARROW_BODY);
+        if (config.getWideBodyPercent() == 0) {
+            return narrowBodyType;
+        }
+        return airplaneRandom.nextInt("type", 0, 100) < config.getWideBodyPercent() ?
+                airplaneStateStore.getAircraftType(AircraftClass.WIDE_BODY) :
+                narrowBodyType;
+    }
+}
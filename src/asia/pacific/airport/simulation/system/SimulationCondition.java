@@ -0,0 +1,27 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimulationCondition {
+    private final SimulationEngine engine;
+    private final List<SimulationProcess> waitingProcesses;
+
+    public SimulationCondition(SimulationEngine engine) {
+        this.engine = engine;
+        waitingProcesses = new ArrayList<>();
+    }
+
+    public void await() {
+        SimulationProcess process = engine.getCurrentProcess();
+        waitingProcesses.add(process);
+        process.suspend();
+    }
+
+    public void signalAll() {
+        for (SimulationProcess process : waitingProcesses) {
+            engine.wake(process);
+        }
+        waitingProcesses.clear();
+    }
+}
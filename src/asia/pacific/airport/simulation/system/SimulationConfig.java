@@ -0,0 +1,693 @@
+package asia.pacific.airport.simulation.system;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/*
+ * Scenario parameters for one simulation run. Values come from the built-in defaults, then an
+ * optional scenario properties file (--scenario=path), then --key=value command line overrides.
+ * See scenario.properties at the project root for every supported key.
+ */
+public class SimulationConfig {
+    public static final String SIMULATION_MODE = "simulation.mode";
+    public static final String SIMULATION_THREADS = "simulation.threads";
+    public static final String SIMULATION_SEED = "simulation.seed";
+    public static final String AIRPLANE_COUNT = "airplane.count";
+    public static final String FLIGHT_PLAN_FILE = "flight.plan.file";
+    public static final String AIRPLANE_ARRIVAL_INTERVAL_MAX = "airplane.arrival.interval.max";
+    public static final String AIRPLANE_PASSENGER_MIN = "airplane.passenger.min";
+    public static final String AIRPLANE_PASSENGER_MAX = "airplane.passenger.max";
+    public static final String AIRPLANE_DOORS = "airplane.doors";
+    public static final String AIRPLANE_FUEL_DEMAND_MIN = "airplane.fuel.demand.min";
+    public static final String AIRPLANE_FUEL_DEMAND_MAX = "airplane.fuel.demand.max";
+    public static final String AIRPLANE_WIDE_BODY_PERCENT = "airplane.wide.body.percent";
+    public static final String AIRPLANE_WIDE_BODY_MODELS = "airplane.wide.body.models";
+    public static final String AIRPLANE_WIDE_BODY_PASSENGER_MIN = "airplane.wide.body.passenger.min";
+    public static final String AIRPLANE_WIDE_BODY_PASSENGER_MAX = "airplane.wide.body.passenger.max";
+    public static final String AIRPLANE_WIDE_BODY_FUEL_DEMAND_MIN = "airplane.wide.body.fuel.demand.min";
+    public static final String AIRPLANE_WIDE_BODY_FUEL_DEMAND_MAX = "airplane.wide.body.fuel.demand.max";
+    public static final String AIRPLANE_WIDE_BODY_TURNAROUND_FACTOR = "airplane.wide.body.turnaround.factor";
+    public static final String GATE_COUNT = "gate.count";
+    public static final String GATE_WIDE_BODY_COUNT = "gate.wide.body.count";
+    public static final String RUNWAY_COUNT = "runway.count";
+    public static final String RUNWAY_LANDING_ONLY = "runway.landing.only";
+    public static final String RUNWAY_TAKE_OFF_ONLY = "runway.take.off.only";
+    public static final String RUNWAY_CLEARANCE_TIMEOUT = "runway.clearance.timeout";
+    public static final String HOLDING_FUEL_ENDURANCE_MIN = "holding.fuel.endurance.min";
+    public static final String HOLDING_FUEL_ENDURANCE_MAX = "holding.fuel.endurance.max";
+    public static final String HOLDING_EMERGENCY_RESERVE = "holding.emergency.reserve";
+    public static final String HOLDING_DIVERSION_RESERVE = "holding.diversion.reserve";
+    public static final String HOLDING_FUEL_BURN_RATE = "holding.fuel.burn.rate";
+    public static final String HOLDING_BUCKET_DURATION = "holding.bucket.duration";
+    public static final String REFUEL_TRUCK_COUNT = "refuel.truck.count";
+    public static final String REFUEL_TRUCK_CAPACITY = "refuel.truck.capacity";
+    public static final String FUEL_DEPOT_RESERVE = "fuel.depot.reserve";
+    public static final String FUEL_DEPOT_BAYS = "fuel.depot.bays";
+    public static final String FUEL_DEPOT_RESUPPLY_VOLUME = "fuel.depot.resupply.volume";
+    public static final String FUEL_DEPOT_RESUPPLY_INTERVAL = "fuel.depot.resupply.interval";
+    public static final String FUEL_DEPOT_DISRUPTION_START = "fuel.depot.disruption.start";
+    public static final String FUEL_DEPOT_DISRUPTION_DURATION = "fuel.depot.disruption.duration";
+    public static final String DURATION_LANDING = "duration.landing";
+    public static final String DURATION_DOCKING = "duration.docking";
+    public static final String DURATION_CLEANING = "duration.cleaning";
+    public static final String DURATION_SUPPLIES_REFILL = "duration.supplies.refill";
+    public static final String DURATION_BAGGAGE_UNLOADING = "duration.baggage.unloading";
+    public static final String DURATION_BAGGAGE_LOADING = "duration.baggage.loading";
+    public static final String DURATION_PASSENGER_BOARDING = "duration.passenger.boarding";
+    public static final String PASSENGER_FLOW_TICK = "passenger.flow.tick";
+    public static final String DURATION_TAKE_OFF = "duration.take.off";
+    public static final String DURATION_REFUEL = "duration.refuel";
+    public static final String DURATION_TRUCK_TRAVEL = "duration.truck.travel";
+    public static final String DURATION_DEPOT_REFILL = "duration.depot.refill";
+    public static final String LOG_LEVEL = "log.level";
+    public static final String LOG_FILE = "log.file";
+    public static final String LOG_BUFFER_SIZE = "log.buffer.size";
+    public static final String JOURNAL_RECORD = "journal.record";
+    public static final String JOURNAL_REPLAY = "journal.replay";
+    public static final String METRICS_JMX = "metrics.jmx";
+    public static final String EVENT_JOURNAL_FILE = "event.journal.file";
+    public static final String EVENT_JOURNAL_SEGMENT_SIZE = "event.journal.segment.size";
+    public static final int DEFAULT_LOG_BUFFER_SIZE = 8192;
+    public static final long UNLIMITED_VOLUME = -1;
+    private static final String UNLIMITED = "unlimited";
+    private static final String SCENARIO_ARGUMENT = "--scenario=";
+    private static final Set<String> KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            SIMULATION_MODE, SIMULATION_THREADS, SIMULATION_SEED,
+            AIRPLANE_COUNT, FLIGHT_PLAN_FILE, AIRPLANE_ARRIVAL_INTERVAL_MAX, AIRPLANE_PASSENGER_MIN, AIRPLANE_PASSENGER_MAX,
+            AIRPLANE_DOORS, AIRPLANE_FUEL_DEMAND_MIN, AIRPLANE_FUEL_DEMAND_MAX,
+            AIRPLANE_WIDE_BODY_PERCENT, AIRPLANE_WIDE_BODY_MODELS,
+            AIRPLANE_WIDE_BODY_PASSENGER_MIN, AIRPLANE_WIDE_BODY_PASSENGER_MAX,
+            AIRPLANE_WIDE_BODY_FUEL_DEMAND_MIN, AIRPLANE_WIDE_BODY_FUEL_DEMAND_MAX, AIRPLANE_WIDE_BODY_TURNAROUND_FACTOR,
+            GATE_COUNT, GATE_WIDE_BODY_COUNT, RUNWAY_COUNT, RUNWAY_LANDING_ONLY, RUNWAY_TAKE_OFF_ONLY, RUNWAY_CLEARANCE_TIMEOUT,
+            HOLDING_FUEL_ENDURANCE_MIN, HOLDING_FUEL_ENDURANCE_MAX, HOLDING_EMERGENCY_RESERVE, HOLDING_DIVERSION_RESERVE,
+            HOLDING_FUEL_BURN_RATE, HOLDING_BUCKET_DURATION,
+            REFUEL_TRUCK_COUNT, REFUEL_TRUCK_CAPACITY, FUEL_DEPOT_RESERVE, FUEL_DEPOT_BAYS,
+            FUEL_DEPOT_RESUPPLY_VOLUME, FUEL_DEPOT_RESUPPLY_INTERVAL,
+            FUEL_DEPOT_DISRUPTION_START, FUEL_DEPOT_DISRUPTION_DURATION,
+            DURATION_LANDING, DURATION_DOCKING, DURATION_CLEANING, DURATION_SUPPLIES_REFILL,
+            DURATION_BAGGAGE_UNLOADING, DURATION_BAGGAGE_LOADING,
+            DURATION_PASSENGER_BOARDING, PASSENGER_FLOW_TICK, DURATION_TAKE_OFF, DURATION_REFUEL, DURATION_TRUCK_TRAVEL,
+            DURATION_DEPOT_REFILL, LOG_LEVEL, LOG_FILE, LOG_BUFFER_SIZE,
+            JOURNAL_RECORD, JOURNAL_REPLAY, METRICS_JMX,
+            EVENT_JOURNAL_FILE, EVENT_JOURNAL_SEGMENT_SIZE
+    )));
+
+    private final SimulationMode mode;
+    private final ThreadMode threadMode;
+    private final long seed;
+    private final int airplaneCount;
+    private final String flightPlanFile;
+    private final int maximumArrivalInterval;
+    private final int minimumPassengerCount;
+    private final int maximumPassengerCount;
+    private final int airplaneDoorCount;
+    private final long minimumFuelDemand;
+    private final long maximumFuelDemand;
+    private final int wideBodyPercent;
+    private final List<String> wideBodyModels;
+    private final int minimumWideBodyPassengerCount;
+    private final int maximumWideBodyPassengerCount;
+    private final long minimumWideBodyFuelDemand;
+    private final long maximumWideBodyFuelDemand;
+    private final double wideBodyTurnaroundFactor;
+    private final int gateCount;
+    private final int wideBodyGateCount;
+    private final int runwayCount;
+    private final int landingOnlyRunwayCount;
+    private final int takeOffOnlyRunwayCount;
+    private final long runwayClearanceTimeout;
+    private final int minimumHoldingFuelEndurance;
+    private final int maximumHoldingFuelEndurance;
+    private final long holdingEmergencyReserve;
+    private final long holdingDiversionReserve;
+    private final long holdingFuelBurnRate;
+    private final long holdingBucketDuration;
+    private final int refuelTruckCount;
+    private final long refuelTruckCapacity;
+    private final long fuelDepotReserve;
+    private final int fuelDepotBayCount;
+    private final long fuelDepotResupplyVolume;
+    private final long fuelDepotResupplyInterval;
+    private final long fuelDepotDisruptionStart;
+    private final long fuelDepotDisruptionDuration;
+    private final long landingDuration;
+    private final long dockingDuration;
+    private final long cleaningDuration;
+    private final long suppliesRefillDuration;
+    private final long baggageUnloadingDuration;
+    private final long baggageLoadingDuration;
+    private final long passengerBoardingDuration;
+    private final long passengerFlowTick;
+    private final long takeOffDuration;
+    private final long refuelDuration;
+    private final long truckTravelDuration;
+    private final long depotRefillDuration;
+    private final LogLevel logLevel;
+    private final String logFile;
+    private final int logBufferSize;
+    private final String journalRecordFile;
+    private final String journalReplayFile;
+    private final boolean isMetricsJmxEnabled;
+    private final String eventJournalFile;
+    private final long eventJournalSegmentSize;
+    private final Properties properties;
+
+    public SimulationConfig(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown scenario property: " + key);
+            }
+        }
+
+        this.properties = new Properties();
+        this.properties.putAll(properties);
+        mode = SimulationMode.valueOf(getString(properties, SIMULATION_MODE, "virtual")
+                .toUpperCase().replace('-', '_'));
+        threadMode = properties.containsKey(SIMULATION_THREADS) ?
+                ThreadMode.valueOf(properties.getProperty(SIMULATION_THREADS).trim().toUpperCase()) :
+                SimulationThreadFactory.defaultThreadMode();
+        seed = getLong(properties, SIMULATION_SEED, System.nanoTime());
+        airplaneCount = getInt(properties, AIRPLANE_COUNT, 6, 1);
+        flightPlanFile = properties.containsKey(FLIGHT_PLAN_FILE) ? getString(properties, FLIGHT_PLAN_FILE, null) : null;
+        maximumArrivalInterval = getInt(properties, AIRPLANE_ARRIVAL_INTERVAL_MAX, 3000, 1);
+        minimumPassengerCount = getInt(properties, AIRPLANE_PASSENGER_MIN, 15, 0);
+        maximumPassengerCount = getInt(properties, AIRPLANE_PASSENGER_MAX, 50, minimumPassengerCount);
+        airplaneDoorCount = getInt(properties, AIRPLANE_DOORS, 1, 1);
+        minimumFuelDemand = getVolume(properties, AIRPLANE_FUEL_DEMAND_MIN, 10000, 1);
+        maximumFuelDemand = getVolume(properties, AIRPLANE_FUEL_DEMAND_MAX, minimumFuelDemand, minimumFuelDemand);
+        wideBodyPercent = getInt(properties, AIRPLANE_WIDE_BODY_PERCENT, 0, 0);
+        if (wideBodyPercent > 100) {
+            throw new IllegalArgumentException(AIRPLANE_WIDE_BODY_PERCENT + " must be at most 100: " + wideBodyPercent);
+        }
+        wideBodyModels = getList(properties, AIRPLANE_WIDE_BODY_MODELS, "A330,A340,A350,A380,B747,B767,B777,B787");
+        minimumWideBodyPassengerCount = getInt(
+                properties, AIRPLANE_WIDE_BODY_PASSENGER_MIN, 3 * minimumPassengerCount, 0
+        );
+        maximumWideBodyPassengerCount = getInt(
+                properties, AIRPLANE_WIDE_BODY_PASSENGER_MAX, 3 * maximumPassengerCount, minimumWideBodyPassengerCount
+        );
+        minimumWideBodyFuelDemand = getVolume(
+                properties, AIRPLANE_WIDE_BODY_FUEL_DEMAND_MIN, 4 * minimumFuelDemand, 1
+        );
+        maximumWideBodyFuelDemand = getVolume(
+                properties, AIRPLANE_WIDE_BODY_FUEL_DEMAND_MAX, 4 * maximumFuelDemand, minimumWideBodyFuelDemand
+        );
+        wideBodyTurnaroundFactor = getDouble(properties, AIRPLANE_WIDE_BODY_TURNAROUND_FACTOR, 1.5);
+        gateCount = getInt(properties, GATE_COUNT, 3, 1);
+        wideBodyGateCount = getInt(properties, GATE_WIDE_BODY_COUNT, 0, 0);
+        if (wideBodyGateCount > gateCount) {
+            throw new IllegalArgumentException(String.format("%s must not exceed %s.", GATE_WIDE_BODY_COUNT, GATE_COUNT));
+        }
+        if (wideBodyPercent > 0 && wideBodyGateCount == 0) {
+            throw new IllegalArgumentException(String.format(
+                    "%s needs at least one wide-body gate in %s.", AIRPLANE_WIDE_BODY_PERCENT, GATE_WIDE_BODY_COUNT
+            ));
+        }
+        runwayCount = getInt(properties, RUNWAY_COUNT, 1, 1);
+        landingOnlyRunwayCount = getInt(properties, RUNWAY_LANDING_ONLY, 0, 0);
+        takeOffOnlyRunwayCount = getInt(properties, RUNWAY_TAKE_OFF_ONLY, 0, 0);
+        int mixedRunwayCount = runwayCount - landingOnlyRunwayCount - takeOffOnlyRunwayCount;
+        if (mixedRunwayCount < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "%s and %s must not exceed %s.", RUNWAY_LANDING_ONLY, RUNWAY_TAKE_OFF_ONLY, RUNWAY_COUNT
+            ));
+        }
+        if (mixedRunwayCount == 0 && (landingOnlyRunwayCount == 0 || takeOffOnlyRunwayCount == 0)) {
+            throw new IllegalArgumentException("At least one runway must accept landings and one must accept take-offs.");
+        }
+        runwayClearanceTimeout = getDuration(properties, RUNWAY_CLEARANCE_TIMEOUT, 60000);
+        minimumHoldingFuelEndurance = getInt(properties, HOLDING_FUEL_ENDURANCE_MIN, 0, 0);
+        maximumHoldingFuelEndurance = getInt(
+                properties, HOLDING_FUEL_ENDURANCE_MAX, minimumHoldingFuelEndurance, minimumHoldingFuelEndurance
+        );
+        holdingEmergencyReserve = getDuration(properties, HOLDING_EMERGENCY_RESERVE, minimumHoldingFuelEndurance / 2);
+        holdingDiversionReserve = getDuration(properties, HOLDING_DIVERSION_RESERVE, minimumHoldingFuelEndurance / 4);
+        holdingFuelBurnRate = getVolume(properties, HOLDING_FUEL_BURN_RATE, 0, 0);
+        holdingBucketDuration = getDuration(properties, HOLDING_BUCKET_DURATION, 1000);
+        if (holdingBucketDuration == 0) {
+            throw new IllegalArgumentException(HOLDING_BUCKET_DURATION + " must be at least 1: 0");
+        }
+        if (isHoldingModelled() && (holdingEmergencyReserve > minimumHoldingFuelEndurance
+                || holdingDiversionReserve >= holdingEmergencyReserve)) {
+            throw new IllegalArgumentException(String.format(
+                    "%s must be below %s, which must not exceed %s.",
+                    HOLDING_DIVERSION_RESERVE, HOLDING_EMERGENCY_RESERVE, HOLDING_FUEL_ENDURANCE_MIN
+            ));
+        }
+        if (holdingFuelBurnRate > 0 && !isHoldingModelled()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s needs a fuel endurance in %s.", HOLDING_FUEL_BURN_RATE, HOLDING_FUEL_ENDURANCE_MIN
+            ));
+        }
+        refuelTruckCount = getInt(properties, REFUEL_TRUCK_COUNT, 1, 1);
+        long largestFuelDemand = getLargestFuelDemand();
+        refuelTruckCapacity = getVolume(properties, REFUEL_TRUCK_CAPACITY, 2 * largestFuelDemand, largestFuelDemand);
+        fuelDepotReserve = getVolumeOrUnlimited(properties, FUEL_DEPOT_RESERVE);
+        fuelDepotBayCount = getInt(properties, FUEL_DEPOT_BAYS, 1, 1);
+        fuelDepotResupplyVolume = getVolume(properties, FUEL_DEPOT_RESUPPLY_VOLUME, 0, 0);
+        fuelDepotResupplyInterval = getDuration(properties, FUEL_DEPOT_RESUPPLY_INTERVAL, 60000);
+        if (fuelDepotResupplyInterval == 0) {
+            throw new IllegalArgumentException(FUEL_DEPOT_RESUPPLY_INTERVAL + " must be at least 1: 0");
+        }
+        fuelDepotDisruptionStart = getDuration(properties, FUEL_DEPOT_DISRUPTION_START, 0);
+        fuelDepotDisruptionDuration = getDuration(properties, FUEL_DEPOT_DISRUPTION_DURATION, 0);
+        landingDuration = getDuration(properties, DURATION_LANDING, 1000);
+        dockingDuration = getDuration(properties, DURATION_DOCKING, 1000);
+        cleaningDuration = getDuration(properties, DURATION_CLEANING, 2000);
+        suppliesRefillDuration = getDuration(properties, DURATION_SUPPLIES_REFILL, 2000);
+        baggageUnloadingDuration = getDuration(properties, DURATION_BAGGAGE_UNLOADING, 1500);
+        baggageLoadingDuration = getDuration(properties, DURATION_BAGGAGE_LOADING, 1500);
+        passengerBoardingDuration = getDuration(properties, DURATION_PASSENGER_BOARDING, 300);
+        passengerFlowTick = getDuration(properties, PASSENGER_FLOW_TICK, 3000);
+        takeOffDuration = getDuration(properties, DURATION_TAKE_OFF, 1000);
+        refuelDuration = getDuration(properties, DURATION_REFUEL, 1000);
+        truckTravelDuration = getDuration(properties, DURATION_TRUCK_TRAVEL, 500);
+        depotRefillDuration = getDuration(properties, DURATION_DEPOT_REFILL, 1000);
+        logLevel = LogLevel.valueOf(getString(properties, LOG_LEVEL, LogLevel.DEBUG.name()).toUpperCase());
+        logFile = properties.containsKey(LOG_FILE) ? getString(properties, LOG_FILE, null) : null;
+        logBufferSize = getInt(properties, LOG_BUFFER_SIZE, DEFAULT_LOG_BUFFER_SIZE, 2);
+        journalRecordFile = properties.containsKey(JOURNAL_RECORD) ? getString(properties, JOURNAL_RECORD, null) : null;
+        journalReplayFile = properties.containsKey(JOURNAL_REPLAY) ? getString(properties, JOURNAL_REPLAY, null) : null;
+        if (journalRecordFile != null && journalReplayFile != null) {
+            throw new IllegalArgumentException(String.format(
+                    "%s and %s must not be set together.", JOURNAL_RECORD, JOURNAL_REPLAY
+            ));
+        }
+        isMetricsJmxEnabled = getBoolean(properties, METRICS_JMX, false);
+        eventJournalFile = properties.containsKey(EVENT_JOURNAL_FILE) ?
+                getString(properties, EVENT_JOURNAL_FILE, null) :
+                null;
+        eventJournalSegmentSize = getVolume(
+                properties, EVENT_JOURNAL_SEGMENT_SIZE, 64 * 1024 * 1024, EventJournal.HEADER_SIZE + EventJournal.RECORD_SIZE
+        );
+        if (eventJournalSegmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "%s must be at most %d: %d", EVENT_JOURNAL_SEGMENT_SIZE, Integer.MAX_VALUE, eventJournalSegmentSize
+            ));
+        }
+    }
+
+    public static SimulationConfig defaults() {
+        return new SimulationConfig(new Properties());
+    }
+
+    public static SimulationConfig load(String[] args) {
+        return load(new Properties(), args);
+    }
+
+    /* Loads args on top of baseProperties, e.g. the scenario recorded in a journal. */
+    public static SimulationConfig load(Properties baseProperties, String[] args) {
+        Properties properties = new Properties();
+        properties.putAll(baseProperties);
+        Properties overrides = new Properties();
+
+        for (String arg : args) {
+            if (arg.startsWith(SCENARIO_ARGUMENT)) {
+                loadScenarioFile(properties, arg.substring(SCENARIO_ARGUMENT.length()));
+            } else if (arg.equals("--real-time")) {
+                overrides.setProperty(SIMULATION_MODE, SimulationMode.REAL_TIME.name());
+            } else if (arg.equals("--virtual")) {
+                overrides.setProperty(SIMULATION_MODE, SimulationMode.VIRTUAL.name());
+            } else if (arg.equals("--virtual-threads")) {
+                overrides.setProperty(SIMULATION_THREADS, ThreadMode.VIRTUAL.name());
+            } else if (arg.equals("--platform-threads")) {
+                overrides.setProperty(SIMULATION_THREADS, ThreadMode.PLATFORM.name());
+            } else if (arg.startsWith("--seed=")) {
+                overrides.setProperty(SIMULATION_SEED, arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                int separatorIndex = arg.indexOf('=');
+                overrides.setProperty(arg.substring(2, separatorIndex), arg.substring(separatorIndex + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        properties.putAll(overrides);
+        return new SimulationConfig(properties);
+    }
+
+    private static void loadScenarioFile(Properties properties, String path) {
+        try (InputStream inputStream = Files.newInputStream(Paths.get(path))) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read scenario file: " + path, e);
+        }
+    }
+
+    private static String getString(Properties properties, String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue).trim();
+    }
+
+    private static boolean getBoolean(Properties properties, String key, boolean defaultValue) {
+        String value = getString(properties, key, Boolean.toString(defaultValue));
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException(String.format("%s must be true or false: %s", key, value));
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static List<String> getList(Properties properties, String key, String defaultValue) {
+        List<String> values = new ArrayList<>();
+        for (String value : getString(properties, key, defaultValue).split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim().toUpperCase());
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static double getDouble(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        try {
+            double parsedValue = value == null ? defaultValue : Double.parseDouble(value.trim());
+            if (!(parsedValue > 0) || Double.isInfinite(parsedValue)) {
+                throw new IllegalArgumentException(String.format("%s must be positive: %s", key, value));
+            }
+            return parsedValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s must be a number: %s", key, value), e);
+        }
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s must be a number: %s", key, value), e);
+        }
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue, int minimumValue) {
+        long value = getLong(properties, key, defaultValue);
+        if (value < minimumValue || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("%s must be at least %d: %d", key, minimumValue, value));
+        }
+        return (int) value;
+    }
+
+    private static long getVolume(Properties properties, String key, long defaultValue, long minimumValue) {
+        long value = getLong(properties, key, defaultValue);
+        if (value < minimumValue) {
+            throw new IllegalArgumentException(String.format("%s must be at least %d: %d", key, minimumValue, value));
+        }
+        return value;
+    }
+
+    /* A volume that defaults to, or may be set to, "unlimited", which is returned as UNLIMITED_VOLUME. */
+    private static long getVolumeOrUnlimited(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().equalsIgnoreCase(UNLIMITED)) {
+            return UNLIMITED_VOLUME;
+        }
+        return getVolume(properties, key, 0, 0);
+    }
+
+    private static long getDuration(Properties properties, String key, long defaultValue) {
+        long value = getLong(properties, key, defaultValue);
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format("%s must not be negative: %d", key, value));
+        }
+        return value;
+    }
+
+    /* The scenario properties this configuration was built from. */
+    public Properties getProperties() {
+        Properties properties = new Properties();
+        properties.putAll(this.properties);
+        return properties;
+    }
+
+    public SimulationMode getMode() {
+        return mode;
+    }
+
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getFlightPlanFile() {
+        return flightPlanFile;
+    }
+
+    public int getAirplaneCount() {
+        return airplaneCount;
+    }
+
+    public int getMaximumArrivalInterval() {
+        return maximumArrivalInterval;
+    }
+
+    public int getMinimumPassengerCount() {
+        return minimumPassengerCount;
+    }
+
+    public int getMaximumPassengerCount() {
+        return maximumPassengerCount;
+    }
+
+    public int getAirplaneDoorCount() {
+        return airplaneDoorCount;
+    }
+
+    public long getMinimumFuelDemand() {
+        return minimumFuelDemand;
+    }
+
+    public long getMaximumFuelDemand() {
+        return maximumFuelDemand;
+    }
+
+    public int getWideBodyPercent() {
+        return wideBodyPercent;
+    }
+
+    public boolean isWideBodyModel(String aircraftModel) {
+        String model = aircraftModel.trim().toUpperCase();
+        for (String wideBodyModel : wideBodyModels) {
+            if (model.startsWith(wideBodyModel)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getMinimumWideBodyPassengerCount() {
+        return minimumWideBodyPassengerCount;
+    }
+
+    public int getMaximumWideBodyPassengerCount() {
+        return maximumWideBodyPassengerCount;
+    }
+
+    public long getMinimumWideBodyFuelDemand() {
+        return minimumWideBodyFuelDemand;
+    }
+
+    public long getMaximumWideBodyFuelDemand() {
+        return maximumWideBodyFuelDemand;
+    }
+
+    public double getWideBodyTurnaroundFactor() {
+        return wideBodyTurnaroundFactor;
+    }
+
+    /*
+     * The most fuel a single airplane can ask for, including the fuel it can burn holding before it
+     * diverts; wide-body demands only count when wide-body gates exist.
+     */
+    public long getLargestFuelDemand() {
+        long largestFuelDemand = wideBodyGateCount > 0 ?
+                Math.max(maximumFuelDemand, maximumWideBodyFuelDemand) :
+                maximumFuelDemand;
+        return largestFuelDemand + getMaximumHoldingFuelBurn();
+    }
+
+    public int getGateCount() {
+        return gateCount;
+    }
+
+    public int getWideBodyGateCount() {
+        return wideBodyGateCount;
+    }
+
+    public int getRunwayCount() {
+        return runwayCount;
+    }
+
+    public int getLandingOnlyRunwayCount() {
+        return landingOnlyRunwayCount;
+    }
+
+    public int getTakeOffOnlyRunwayCount() {
+        return takeOffOnlyRunwayCount;
+    }
+
+    public long getRunwayClearanceTimeout() {
+        return runwayClearanceTimeout;
+    }
+
+    /* Holding is modelled once airplanes have a fuel endurance; without one they hold indefinitely. */
+    public boolean isHoldingModelled() {
+        return minimumHoldingFuelEndurance > 0;
+    }
+
+    public int getMinimumHoldingFuelEndurance() {
+        return minimumHoldingFuelEndurance;
+    }
+
+    public int getMaximumHoldingFuelEndurance() {
+        return maximumHoldingFuelEndurance;
+    }
+
+    public long getHoldingEmergencyReserve() {
+        return holdingEmergencyReserve;
+    }
+
+    public long getHoldingDiversionReserve() {
+        return holdingDiversionReserve;
+    }
+
+    public long getHoldingFuelBurnRate() {
+        return holdingFuelBurnRate;
+    }
+
+    public long getHoldingBucketDuration() {
+        return holdingBucketDuration;
+    }
+
+    /* Fuel burnt by an airplane that holds until its diversion threshold. */
+    public long getMaximumHoldingFuelBurn() {
+        return holdingFuelBurnRate * (maximumHoldingFuelEndurance - holdingDiversionReserve) / 1000;
+    }
+
+    public int getRefuelTruckCount() {
+        return refuelTruckCount;
+    }
+
+    public long getRefuelTruckCapacity() {
+        return refuelTruckCapacity;
+    }
+
+    /* Litres the fuel depot starts with, or UNLIMITED_VOLUME. */
+    public long getFuelDepotReserve() {
+        return fuelDepotReserve;
+    }
+
+    public boolean isFuelDepotReserveUnlimited() {
+        return fuelDepotReserve == UNLIMITED_VOLUME;
+    }
+
+    public int getFuelDepotBayCount() {
+        return fuelDepotBayCount;
+    }
+
+    public long getFuelDepotResupplyVolume() {
+        return fuelDepotResupplyVolume;
+    }
+
+    public long getFuelDepotResupplyInterval() {
+        return fuelDepotResupplyInterval;
+    }
+
+    public long getFuelDepotDisruptionStart() {
+        return fuelDepotDisruptionStart;
+    }
+
+    public long getFuelDepotDisruptionEnd() {
+        return fuelDepotDisruptionStart + fuelDepotDisruptionDuration;
+    }
+
+    public long getLandingDuration() {
+        return landingDuration;
+    }
+
+    public long getDockingDuration() {
+        return dockingDuration;
+    }
+
+    public long getCleaningDuration() {
+        return cleaningDuration;
+    }
+
+    public long getSuppliesRefillDuration() {
+        return suppliesRefillDuration;
+    }
+
+    public long getBaggageUnloadingDuration() {
+        return baggageUnloadingDuration;
+    }
+
+    public long getBaggageLoadingDuration() {
+        return baggageLoadingDuration;
+    }
+
+    public long getPassengerBoardingDuration() {
+        return passengerBoardingDuration;
+    }
+
+    public long getPassengerFlowTick() {
+        return passengerFlowTick;
+    }
+
+    public long getTakeOffDuration() {
+        return takeOffDuration;
+    }
+
+    public long getRefuelDuration() {
+        return refuelDuration;
+    }
+
+    public long getTruckTravelDuration() {
+        return truckTravelDuration;
+    }
+
+    public long getDepotRefillDuration() {
+        return depotRefillDuration;
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    public int getLogBufferSize() {
+        return logBufferSize;
+    }
+
+    public String getJournalRecordFile() {
+        return journalRecordFile;
+    }
+
+    public String getJournalReplayFile() {
+        return journalReplayFile;
+    }
+
+    public boolean isMetricsJmxEnabled() {
+        return isMetricsJmxEnabled;
+    }
+
+    public String getEventJournalFile() {
+        return eventJournalFile;
+    }
+
+    public long getEventJournalSegmentSize() {
+        return eventJournalSegmentSize;
+    }
+}
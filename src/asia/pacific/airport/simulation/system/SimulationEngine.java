@@ -0,0 +1,312 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/*
+ * Discrete-event engine driving the simulation on a virtual AirportTime clock.
+ * Airplanes, refuel trucks and ground services run as simulation processes, but only one
+ * process holds the engine at a time; a process hands control back whenever it sleeps or
+ * awaits a SimulationCondition. In VIRTUAL mode the clock jumps straight to the next event,
+ * in REAL_TIME mode the engine waits for the wall clock to catch up before dispatching it,
+ * so both modes execute exactly the same event sequence. Control is handed over through
+ * semaphores rather than monitors, so processes on virtual threads park without pinning.
+ * When the event queue runs dry while processes other than daemons are still suspended, nothing
+ * can ever resume them; the engine records them as stranded instead of ending silently.
+ */
+public class SimulationEngine {
+    private static final String ENGINE_NAME = "Simulation Engine";
+    private final SimulationMode mode;
+    private final AirportTime airportTime;
+    private final SimulationThreadFactory threadFactory;
+    private final SimulationLogger logger;
+    private final SimulationJournal journal;
+    private final MetricsRegistry metrics;
+    private final EventJournal eventJournal;
+    private final PriorityQueue<SimulationEvent> eventQueue;
+    private final Set<SimulationProcess> activeProcesses;
+    private final Semaphore schedulerSemaphore;
+    private List<String> strandedProcessNames;
+    private long eventSequence;
+    private SimulationProcess currentProcess;
+    private volatile boolean isTerminated;
+    private long wallClockStartTime;
+
+    public SimulationEngine(SimulationMode mode, long startTime) {
+        this(mode, SimulationThreadFactory.defaultThreadMode(), startTime);
+    }
+
+    public SimulationEngine(SimulationMode mode, ThreadMode threadMode, long startTime) {
+        this(mode, threadMode, startTime, SimulationLogger.console(LogLevel.INFO));
+    }
+
+    public SimulationEngine(SimulationMode mode, ThreadMode threadMode, long startTime, SimulationLogger logger) {
+        this(mode, threadMode, startTime, logger, SimulationJournal.disabled(), MetricsRegistry.disabled());
+    }
+
+    public SimulationEngine(
+            SimulationMode mode,
+            ThreadMode threadMode,
+            long startTime,
+            SimulationLogger logger,
+            SimulationJournal journal,
+            MetricsRegistry metrics
+    ) {
+        this(mode, threadMode, startTime, logger, journal, metrics, EventJournal.disabled());
+    }
+
+    public SimulationEngine(
+            SimulationMode mode,
+            ThreadMode threadMode,
+            long startTime,
+            SimulationLogger logger,
+            SimulationJournal journal,
+            MetricsRegistry metrics,
+            EventJournal eventJournal
+    ) {
+        this.mode = mode;
+        airportTime = new AirportTime(startTime);
+        threadFactory = new SimulationThreadFactory(threadMode);
+        this.logger = logger;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.eventJournal = eventJournal;
+        eventQueue = new PriorityQueue<>();
+        activeProcesses = new LinkedHashSet<>();
+        schedulerSemaphore = new Semaphore(0);
+        strandedProcessNames = Collections.emptyList();
+        eventSequence = 0;
+        isTerminated = false;
+    }
+
+    public SimulationMode getMode() {
+        return mode;
+    }
+
+    public ThreadMode getThreadMode() {
+        return threadFactory.getThreadMode();
+    }
+
+    public AirportTime getAirportTime() {
+        return airportTime;
+    }
+
+    public long now() {
+        return airportTime.now();
+    }
+
+    public SimulationLogger getLogger() {
+        return logger;
+    }
+
+    public SimulationJournal getJournal() {
+        return journal;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public EventJournal getEventJournal() {
+        return eventJournal;
+    }
+
+    public boolean isLoggable(LogLevel logLevel) {
+        return logger.isEnabled(logLevel);
+    }
+
+    public void log(LogLevel logLevel, String source, String loggingMessage) {
+        logger.log(logLevel, airportTime.now(), source, loggingMessage);
+    }
+
+    public boolean isTerminated() {
+        return isTerminated;
+    }
+
+    /* Processes, in start order, that were still suspended when the event queue ran dry. */
+    public List<String> getStrandedProcessNames() {
+        return strandedProcessNames;
+    }
+
+    public SimulationEvent schedule(long delay, Runnable action) {
+        return schedule(delay, eventSequence++, action);
+    }
+
+    /*
+     * Sets aside count consecutive event sequence numbers and returns the first, so events created
+     * later with schedule(delay, sequence, action) order exactly as if they had been queued now.
+     */
+    long reserveEventSequences(int count) {
+        long firstSequence = eventSequence;
+        eventSequence += count;
+        return firstSequence;
+    }
+
+    SimulationEvent schedule(long delay, long sequence, Runnable action) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Event delay must not be negative.");
+        }
+        SimulationEvent event = new SimulationEvent(now() + delay, sequence, action);
+        eventQueue.offer(event);
+        return event;
+    }
+
+    public SimulationProcess spawn(String name, Runnable body) {
+        return spawn(name, 0, body);
+    }
+
+    public SimulationProcess spawn(String name, long delay, Runnable body) {
+        SimulationProcess process = new SimulationProcess(this, name, body, false);
+        schedule(delay, () -> resume(process));
+        return process;
+    }
+
+    /* Spawns a service loop that idles between requests, so it is never reported as stranded. */
+    public SimulationProcess spawnDaemon(String name, Runnable body) {
+        SimulationProcess process = new SimulationProcess(this, name, body, true);
+        schedule(0, () -> resume(process));
+        return process;
+    }
+
+    /* Starts a process right away from an event action instead of queueing its start. */
+    SimulationProcess start(String name, Runnable body) {
+        SimulationProcess process = new SimulationProcess(this, name, body, false);
+        resume(process);
+        return process;
+    }
+
+    public void sleep(long duration) {
+        SimulationProcess process = getCurrentProcess();
+        schedule(duration, () -> resume(process));
+        process.suspend();
+    }
+
+    /* Completes on the scheduler once duration has passed, without suspending any process. */
+    public CompletableFuture<Void> delay(long duration) {
+        CompletableFuture<Void> delay = new CompletableFuture<>();
+        schedule(duration, () -> delay.complete(null));
+        return delay;
+    }
+
+    /* Suspends the current process until future completes, then returns its result. */
+    public <T> T await(CompletableFuture<T> future) {
+        SimulationProcess process = getCurrentProcess();
+        if (!future.isDone()) {
+            future.whenComplete((result, failure) -> wake(process));
+            process.suspend();
+        }
+        return future.join();
+    }
+
+    SimulationProcess getCurrentProcess() {
+        if (currentProcess == null) {
+            throw new IllegalStateException("Only a simulation process can wait on the simulation engine.");
+        }
+        return currentProcess;
+    }
+
+    Thread newProcessThread(SimulationProcess process, Runnable body) {
+        return threadFactory.newThread(process.getName(), body);
+    }
+
+    void wake(SimulationProcess process) {
+        schedule(0, () -> resume(process));
+    }
+
+    void yieldToScheduler() {
+        schedulerSemaphore.release();
+    }
+
+    void processStarted(SimulationProcess process) {
+        activeProcesses.add(process);
+    }
+
+    void processFinished(SimulationProcess process) {
+        activeProcesses.remove(process);
+    }
+
+    private void resume(SimulationProcess process) {
+        if (process.isFinished()) {
+            return;
+        }
+
+        currentProcess = process;
+        process.resume();
+        schedulerSemaphore.acquireUninterruptibly();
+        currentProcess = null;
+
+        if (process.getFailure() != null) {
+            throw new RuntimeException(process.getName() + " failed.", process.getFailure());
+        }
+    }
+
+    private void waitForWallClock(long eventTime) {
+        long wallClockDelay = (eventTime - airportTime.getStartTime())
+                - (System.currentTimeMillis() - wallClockStartTime);
+        if (wallClockDelay > 0) {
+            try {
+                Thread.sleep(wallClockDelay);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public void run() {
+        wallClockStartTime = System.currentTimeMillis() - airportTime.getElapsedTime();
+        try {
+            while (!eventQueue.isEmpty()) {
+                SimulationEvent event = eventQueue.poll();
+                if (event.isCancelled()) {
+                    continue;
+                }
+                if (mode == SimulationMode.REAL_TIME) {
+                    waitForWallClock(event.getTime());
+                }
+                airportTime.advanceTo(event.getTime());
+                event.getAction().run();
+            }
+            if (!isTerminated) {
+                recordStrandedProcesses();
+            }
+        } finally {
+            terminate();
+        }
+    }
+
+    private void recordStrandedProcesses() {
+        List<String> strandedProcessNames = new ArrayList<>();
+        for (SimulationProcess process : activeProcesses) {
+            if (!process.isDaemon()) {
+                strandedProcessNames.add(process.getName());
+            }
+        }
+        this.strandedProcessNames = Collections.unmodifiableList(strandedProcessNames);
+
+        if (!strandedProcessNames.isEmpty()) {
+            String strandedLoggingMessage = String.format(
+                    "No events left to dispatch, but %d processes are still suspended.",
+                    strandedProcessNames.size()
+            );
+            log(LogLevel.WARN, ENGINE_NAME, strandedLoggingMessage);
+        }
+    }
+
+    private void terminate() {
+        isTerminated = true;
+        List<SimulationProcess> suspendedProcesses = new ArrayList<>(activeProcesses);
+        activeProcesses.clear();
+        for (SimulationProcess process : suspendedProcesses) {
+            process.interrupt();
+        }
+        for (SimulationProcess process : suspendedProcesses) {
+            process.awaitExit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package asia.pacific.airport.simulation.system;
+
+public class SimulationEvent implements Comparable<SimulationEvent> {
+    private final long time;
+    private final long sequence;
+    private final Runnable action;
+    private boolean isCancelled;
+
+    public SimulationEvent(long time, long sequence, Runnable action) {
+        this.time = time;
+        this.sequence = sequence;
+        this.action = action;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Runnable getAction() {
+        return action;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int timeComparison = Long.compare(this.time, other.time);
+        if (timeComparison != 0) {
+            return timeComparison;
+        }
+
+        return Long.compare(this.sequence, other.sequence);
+    }
+}
@@ -0,0 +1,118 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/*
+ * Single-assignment result confined to the simulation engine. The first complete or fail wins
+ * and later ones are ignored, so a timeout and a late completion can race safely. Callbacks run
+ * synchronously on whichever process or event settles the future, in registration order, and an
+ * exception thrown by a callback propagates to that caller instead of being swallowed. A timeout
+ * is a cancellable engine event, so it never extends the simulation once the future settles.
+ */
+public class SimulationFuture<T> {
+    private final SimulationEngine engine;
+    private boolean isDone;
+    private T value;
+    private Throwable failure;
+    private List<BiConsumer<? super T, ? super Throwable>> callbacks;
+    private SimulationEvent timeoutEvent;
+
+    public SimulationFuture(SimulationEngine engine) {
+        this.engine = engine;
+    }
+
+    public boolean isDone() {
+        return isDone;
+    }
+
+    public boolean isFailed() {
+        return isDone && failure != null;
+    }
+
+    public T getNow(T valueIfAbsent) {
+        return isDone && failure == null ? value : valueIfAbsent;
+    }
+
+    public boolean complete(T value) {
+        return settle(value, null);
+    }
+
+    public boolean fail(Throwable failure) {
+        return settle(null, failure);
+    }
+
+    private boolean settle(T value, Throwable failure) {
+        if (isDone) {
+            return false;
+        }
+
+        isDone = true;
+        this.value = value;
+        this.failure = failure;
+        if (timeoutEvent != null) {
+            timeoutEvent.cancel();
+        }
+
+        if (callbacks != null) {
+            List<BiConsumer<? super T, ? super Throwable>> callbacks = this.callbacks;
+            this.callbacks = null;
+            for (BiConsumer<? super T, ? super Throwable> callback : callbacks) {
+                callback.accept(value, failure);
+            }
+        }
+        return true;
+    }
+
+    /* Makes a settled future pending again so its owner can reuse it. */
+    void reset() {
+        if (!isDone) {
+            throw new IllegalStateException("Only a settled future can be reset.");
+        }
+        isDone = false;
+        value = null;
+        failure = null;
+        timeoutEvent = null;
+    }
+
+    public void onComplete(BiConsumer<? super T, ? super Throwable> callback) {
+        if (isDone) {
+            callback.accept(value, failure);
+            return;
+        }
+
+        if (callbacks == null) {
+            callbacks = new ArrayList<>(2);
+        }
+        callbacks.add(callback);
+    }
+
+    /* Fails the future with a TimeoutException unless it settles within timeout; 0 waits forever. */
+    public SimulationFuture<T> withTimeout(long timeout) {
+        if (timeout > 0 && !isDone) {
+            if (timeoutEvent != null) {
+                timeoutEvent.cancel();
+            }
+            timeoutEvent = engine.schedule(timeout, () -> fail(new TimeoutException(
+                    String.format("Timed out after %.3fs.", timeout / 1000.0)
+            )));
+        }
+        return this;
+    }
+
+    /* Suspends the current process until the future settles, then returns its value. */
+    public T await() {
+        if (!isDone) {
+            SimulationProcess process = engine.getCurrentProcess();
+            onComplete((value, failure) -> engine.wake(process));
+            process.suspend();
+        }
+
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,251 @@
+package asia.pacific.airport.simulation.system;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/*
+ * Journal of every random draw and every ATC decision of a run. Recording writes each draw and
+ * decision as it happens; replaying feeds the recorded draws back to the same entities in place
+ * of their random streams and checks each ATC decision against the recorded one, reporting the
+ * first divergence. Replaying the journal of one build with another therefore runs the identical
+ * arrival pattern and shows whether both made the same decisions. The header holds the resolved
+ * scenario of the recorded run, which a replay runs again and refuses to override.
+ */
+public class SimulationJournal {
+    private static final String DRAW = "DRAW";
+    private static final String DECISION = "DECISION";
+    private static final String SCENARIO = "SCENARIO";
+    /* Keys that change how a run is observed or executed, but not what it decides. */
+    private static final Set<String> RUN_OPTION_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            SimulationConfig.SIMULATION_THREADS, SimulationConfig.LOG_LEVEL, SimulationConfig.LOG_FILE,
+            SimulationConfig.LOG_BUFFER_SIZE, SimulationConfig.JOURNAL_RECORD, SimulationConfig.JOURNAL_REPLAY,
+            SimulationConfig.METRICS_JMX, SimulationConfig.EVENT_JOURNAL_FILE, SimulationConfig.EVENT_JOURNAL_SEGMENT_SIZE
+    )));
+    private final JournalMode journalMode;
+    private final Writer writer;
+    private final Map<String, Queue<Long>> recordedDraws;
+    private final List<String> recordedDecisions;
+    private int decisionCount;
+    private String firstDivergence;
+
+    private enum JournalMode {
+        OFF,
+        RECORD,
+        REPLAY
+    }
+
+    private SimulationJournal(
+            JournalMode journalMode,
+            Writer writer,
+            Map<String, Queue<Long>> recordedDraws,
+            List<String> recordedDecisions
+    ) {
+        this.journalMode = journalMode;
+        this.writer = writer;
+        this.recordedDraws = recordedDraws;
+        this.recordedDecisions = recordedDecisions;
+        decisionCount = 0;
+    }
+
+    public static SimulationJournal disabled() {
+        return new SimulationJournal(JournalMode.OFF, null, null, null);
+    }
+
+    public static SimulationJournal create(SimulationConfig config) {
+        if (config.getJournalRecordFile() != null) {
+            return record(config);
+        }
+        if (config.getJournalReplayFile() != null) {
+            return replay(config.getJournalReplayFile());
+        }
+        return disabled();
+    }
+
+    private static SimulationJournal record(SimulationConfig config) {
+        try {
+            Writer writer = Files.newBufferedWriter(Paths.get(config.getJournalRecordFile()), StandardCharsets.UTF_8);
+            writer.write(String.format("# Asia Pacific Airport simulation journal, seed %d%n", config.getSeed()));
+            Properties properties = config.getProperties();
+            properties.setProperty(SimulationConfig.SIMULATION_SEED, Long.toString(config.getSeed()));
+            for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+                if (!RUN_OPTION_KEYS.contains(key)) {
+                    writer.write(String.format("%s,%s,%s%n", SCENARIO, key, properties.getProperty(key).trim()));
+                }
+            }
+            return new SimulationJournal(JournalMode.RECORD, writer, null, null);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to open journal file: " + config.getJournalRecordFile(), e);
+        }
+    }
+
+    /*
+     * Loads args on top of the scenario the journal was recorded with, and rejects any argument that
+     * would replay a different scenario, since the run would otherwise only diverge decisions later.
+     */
+    public static SimulationConfig loadReplayConfig(String path, String[] args) {
+        Properties recordedProperties = readScenario(path);
+        SimulationConfig config = SimulationConfig.load(recordedProperties, args);
+
+        Properties replayedProperties = config.getProperties();
+        Set<String> keys = new TreeSet<>(recordedProperties.stringPropertyNames());
+        keys.addAll(replayedProperties.stringPropertyNames());
+        for (String key : keys) {
+            String recordedValue = recordedProperties.getProperty(key);
+            String replayedValue = replayedProperties.getProperty(key);
+            if (
+                !RUN_OPTION_KEYS.contains(key) &&
+                !Objects.equals(recordedValue, replayedValue == null ? null : replayedValue.trim())
+            ) {
+                throw new IllegalArgumentException(String.format(
+                        "Journal %s was recorded with %s=%s and can not be replayed with %s.",
+                        path,
+                        key,
+                        recordedValue == null ? "(default)" : recordedValue,
+                        replayedValue == null ? "the default" : replayedValue.trim()
+                ));
+            }
+        }
+        return config;
+    }
+
+    private static Properties readScenario(String path) {
+        Properties properties = new Properties();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(SCENARIO + ",")) {
+                    int valueSeparatorIndex = line.indexOf(',', SCENARIO.length() + 1);
+                    properties.setProperty(
+                            line.substring(SCENARIO.length() + 1, valueSeparatorIndex),
+                            line.substring(valueSeparatorIndex + 1)
+                    );
+                } else if (!line.startsWith("#")) {
+                    break;
+                }
+            }
+        } catch (IOException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Unable to read journal file: " + path, e);
+        }
+        return properties;
+    }
+
+    private static SimulationJournal replay(String path) {
+        Map<String, Queue<Long>> recordedDraws = new HashMap<>();
+        List<String> recordedDecisions = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(DRAW + ",")) {
+                    int valueSeparatorIndex = line.lastIndexOf(',');
+                    recordedDraws
+                            .computeIfAbsent(line.substring(DRAW.length() + 1, valueSeparatorIndex), key -> new ArrayDeque<>())
+                            .add(Long.parseLong(line.substring(valueSeparatorIndex + 1)));
+                } else if (line.startsWith(DECISION + ",")) {
+                    recordedDecisions.add(line.substring(DECISION.length() + 1));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to read journal file: " + path, e);
+        }
+
+        return new SimulationJournal(JournalMode.REPLAY, null, recordedDraws, recordedDecisions);
+    }
+
+    public boolean isEnabled() {
+        return journalMode != JournalMode.OFF;
+    }
+
+    public boolean isReplaying() {
+        return journalMode == JournalMode.REPLAY;
+    }
+
+    public long draw(int entityId, String stream, LongSupplier randomValue) {
+        switch (journalMode) {
+            case RECORD:
+                long value = randomValue.getAsLong();
+                write(String.format("%s,%d,%s,%d%n", DRAW, entityId, stream, value));
+                return value;
+            case REPLAY:
+                Queue<Long> values = recordedDraws.get(entityId + "," + stream);
+                if (values == null || values.isEmpty()) {
+                    throw new IllegalStateException(String.format(
+                            "The replay journal has no more %s values for entity %d.", stream, entityId
+                    ));
+                }
+                return values.poll();
+            default:
+                return randomValue.getAsLong();
+        }
+    }
+
+    public void decision(long elapsedTime, String decision) {
+        String entry = elapsedTime + "," + decision;
+        if (journalMode == JournalMode.RECORD) {
+            write(DECISION + "," + entry + System.lineSeparator());
+        } else if (journalMode == JournalMode.REPLAY && firstDivergence == null) {
+            String recordedDecision = decisionCount < recordedDecisions.size() ?
+                    recordedDecisions.get(decisionCount) :
+                    "(none)";
+            if (!recordedDecision.equals(entry)) {
+                firstDivergence = String.format(
+                        "decision %d: recorded [%s], replayed [%s]",
+                        decisionCount + 1,
+                        recordedDecision,
+                        entry
+                );
+            }
+        }
+        decisionCount++;
+    }
+
+    private void write(String entry) {
+        try {
+            writer.write(entry);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void close() {
+        if (journalMode == JournalMode.RECORD) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public String getReplaySummary() {
+        if (firstDivergence != null) {
+            return "Replay diverged at " + firstDivergence;
+        }
+        if (decisionCount != recordedDecisions.size()) {
+            return String.format(
+                    "Replay diverged: %d decisions recorded, %d replayed.",
+                    recordedDecisions.size(),
+                    decisionCount
+            );
+        }
+        return String.format("Replay matched all %d recorded ATC decisions.", decisionCount);
+    }
+}
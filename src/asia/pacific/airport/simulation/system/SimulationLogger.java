@@ -0,0 +1,233 @@
+package asia.pacific.airport.simulation.system;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Asynchronous logging backend shared by every Logging implementor of a simulation.
+ * Callers claim a slot in a pre-allocated ring buffer with a single getAndIncrement and publish
+ * it with an ordered store, so logging never takes a lock or touches the PrintStream monitor.
+ * A background writer drains the ring, formats timestamps with a cached formatter and writes
+ * whole batches to stdout or a file. When the ring is full, callers back off until the writer
+ * catches up rather than dropping lines.
+ */
+public class SimulationLogger implements AutoCloseable {
+    private static final int BATCH_FLUSH_THRESHOLD = 64 * 1024;
+    private static final long WRITER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private final LogLevel logLevel;
+    private final Writer output;
+    private final boolean isOutputOwned;
+    private final LogRecord[] ring;
+    private final AtomicLongArray publishedSequences;
+    private final int ringMask;
+    private final AtomicLong claimSequence;
+    private volatile long consumedSequence;
+    private volatile long writtenSequence;
+    private volatile boolean isWriterWaiting;
+    private volatile boolean isClosed;
+    private final Thread writerThread;
+    private final StringBuilder batch;
+    private long cachedTimestampSecond;
+    private String cachedTimestamp;
+
+    public SimulationLogger(LogLevel logLevel, Writer output, boolean isOutputOwned, int bufferSize) {
+        this.logLevel = logLevel;
+        this.output = output;
+        this.isOutputOwned = isOutputOwned;
+
+        int ringSize = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        ring = new LogRecord[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new LogRecord();
+        }
+        publishedSequences = new AtomicLongArray(ringSize);
+        ringMask = ringSize - 1;
+        claimSequence = new AtomicLong(0);
+        consumedSequence = 0;
+        writtenSequence = 0;
+        batch = new StringBuilder(BATCH_FLUSH_THRESHOLD);
+        cachedTimestampSecond = Long.MIN_VALUE;
+
+        writerThread = new Thread(this::drain, "Simulation Logger");
+        writerThread.setDaemon(true);
+        if (logLevel != LogLevel.OFF) {
+            writerThread.start();
+        }
+    }
+
+    public static SimulationLogger console(LogLevel logLevel) {
+        return new SimulationLogger(
+                logLevel,
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                false,
+                SimulationConfig.DEFAULT_LOG_BUFFER_SIZE
+        );
+    }
+
+    public static SimulationLogger disabled() {
+        return new SimulationLogger(LogLevel.OFF, new OutputStreamWriter(System.out, StandardCharsets.UTF_8), false, 2);
+    }
+
+    public static SimulationLogger create(SimulationConfig config) {
+        if (config.getLogFile() == null) {
+            return new SimulationLogger(
+                    config.getLogLevel(),
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                    false,
+                    config.getLogBufferSize()
+            );
+        }
+
+        try {
+            return new SimulationLogger(
+                    config.getLogLevel(),
+                    new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(config.getLogFile()),
+                            StandardCharsets.UTF_8
+                    )),
+                    true,
+                    config.getLogBufferSize()
+            );
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to open log file: " + config.getLogFile(), e);
+        }
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level != LogLevel.OFF && level.compareTo(logLevel) <= 0;
+    }
+
+    public void log(LogLevel level, long time, String source, String message) {
+        if (!isEnabled(level) || isClosed) {
+            return;
+        }
+
+        long sequence = claimSequence.getAndIncrement();
+        while (sequence - consumedSequence >= ring.length) {
+            wakeWriter();
+            LockSupport.parkNanos(WRITER_PARK_NANOS);
+        }
+
+        int index = (int) (sequence & ringMask);
+        ring[index].set(time, source, message);
+        publishedSequences.lazySet(index, sequence + 1);
+        if (isWriterWaiting) {
+            wakeWriter();
+        }
+    }
+
+    public void flush() {
+        if (logLevel == LogLevel.OFF) {
+            return;
+        }
+
+        long targetSequence = claimSequence.get();
+        while (writtenSequence < targetSequence && writerThread.isAlive()) {
+            wakeWriter();
+            LockSupport.parkNanos(WRITER_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        isClosed = true;
+        wakeWriter();
+        try {
+            writerThread.join();
+            if (isOutputOwned) {
+                output.close();
+            }
+        } catch (InterruptedException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void wakeWriter() {
+        LockSupport.unpark(writerThread);
+    }
+
+    private void drain() {
+        long sequence = consumedSequence;
+        while (true) {
+            int index = (int) (sequence & ringMask);
+            if (publishedSequences.get(index) == sequence + 1) {
+                append(ring[index]);
+                ring[index].clear();
+                consumedSequence = ++sequence;
+                if (batch.length() >= BATCH_FLUSH_THRESHOLD) {
+                    writeBatch(sequence);
+                }
+                continue;
+            }
+
+            writeBatch(sequence);
+            if (isClosed && sequence == claimSequence.get()) {
+                return;
+            }
+
+            isWriterWaiting = true;
+            if (publishedSequences.get(index) != sequence + 1) {
+                LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+            }
+            isWriterWaiting = false;
+        }
+    }
+
+    private void append(LogRecord record) {
+        long timestampSecond = Math.floorDiv(record.time, 1000L);
+        if (timestampSecond != cachedTimestampSecond) {
+            cachedTimestampSecond = timestampSecond;
+            cachedTimestamp = AirportTime.formatTimestamp(record.time);
+        }
+
+        batch.append(cachedTimestamp)
+                .append(' ')
+                .append(record.source)
+                .append(": ")
+                .append(record.message)
+                .append(System.lineSeparator());
+    }
+
+    private void writeBatch(long sequence) {
+        if (batch.length() > 0) {
+            try {
+                output.append(batch);
+                output.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            batch.setLength(0);
+        }
+        writtenSequence = sequence;
+    }
+
+    private static class LogRecord {
+        private long time;
+        private String source;
+        private String message;
+
+        private void set(long time, String source, String message) {
+            this.time = time;
+            this.source = source;
+            this.message = message;
+        }
+
+        private void clear() {
+            source = null;
+            message = null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package asia.pacific.airport.simulation.system;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * In-process metrics registry. Counters are LongAdders, so simulation processes update them
+ * without contending with each other or with readers. The registry is also a dynamic MBean
+ * with one read-only attribute per metric, so a running simulation can be watched from JConsole
+ * or any other JMX client.
+ */
+public class SimulationMetrics implements MetricsRegistry, DynamicMBean {
+    private static final String OBJECT_NAME = "asia.pacific.airport.simulation.system:type=SimulationMetrics,seed=";
+    private final ConcurrentMap<String, Supplier<Number>> metrics;
+    private ObjectName objectName;
+
+    public SimulationMetrics() {
+        metrics = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public LongAdder counter(String name) {
+        LongAdder counter = new LongAdder();
+        register(name, counter::sum);
+        return counter;
+    }
+
+    @Override
+    public void gauge(String name, Supplier<Number> value) {
+        register(name, value);
+    }
+
+    private void register(String name, Supplier<Number> value) {
+        if (metrics.putIfAbsent(name, value) != null) {
+            throw new IllegalArgumentException("Metric is already registered: " + name);
+        }
+    }
+
+    public Number read(String name) {
+        Supplier<Number> metric = metrics.get(name);
+        return metric == null ? null : metric.get();
+    }
+
+    public Map<String, Number> snapshot() {
+        Map<String, Number> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Supplier<Number>> metric : metrics.entrySet()) {
+            snapshot.put(metric.getKey(), metric.getValue().get());
+        }
+        return snapshot;
+    }
+
+    public void registerMBean(long seed) {
+        try {
+            objectName = new ObjectName(OBJECT_NAME + seed);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register the metrics MBean.", e);
+        }
+    }
+
+    public void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to unregister the metrics MBean.", e);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = read(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList attributeList = new AttributeList();
+        for (String attribute : attributes) {
+            Number value = read(attribute);
+            if (value != null) {
+                attributeList.add(new Attribute(attribute, value));
+            }
+        }
+        return attributeList;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Simulation metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("Simulation metrics have no operations.");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Number> snapshot = snapshot();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[snapshot.size()];
+        int i = 0;
+        for (Map.Entry<String, Number> metric : snapshot.entrySet()) {
+            attributes[i++] = new MBeanAttributeInfo(
+                    metric.getKey(),
+                    metric.getValue().getClass().getName(),
+                    metric.getKey(),
+                    true,
+                    false,
+                    false
+            );
+        }
+        return new MBeanInfo(
+                getClass().getName(),
+                "Live metrics of an Asia Pacific Airport simulation.",
+                attributes,
+                null,
+                null,
+                null
+        );
+    }
+}
@@ -0,0 +1,6 @@
+package asia.pacific.airport.simulation.system;
+
+public enum SimulationMode {
+    VIRTUAL,
+    REAL_TIME
+}
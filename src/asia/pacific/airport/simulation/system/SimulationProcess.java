@@ -0,0 +1,107 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.concurrent.Semaphore;
+
+public class SimulationProcess {
+    private final SimulationEngine engine;
+    private final String name;
+    private final Runnable body;
+    private final boolean isDaemon;
+    private final Semaphore resumeSemaphore;
+    private final SimulationCondition completionCondition;
+    private Thread thread;
+    private volatile boolean isFinished;
+    private volatile Throwable failure;
+
+    SimulationProcess(SimulationEngine engine, String name, Runnable body, boolean isDaemon) {
+        this.engine = engine;
+        this.name = name;
+        this.body = body;
+        this.isDaemon = isDaemon;
+        resumeSemaphore = new Semaphore(0);
+        completionCondition = new SimulationCondition(engine);
+        isFinished = false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDaemon() {
+        return isDaemon;
+    }
+
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    Throwable getFailure() {
+        return failure;
+    }
+
+    public void join() {
+        while (!isFinished) {
+            completionCondition.await();
+        }
+    }
+
+    void resume() {
+        if (thread == null) {
+            thread = engine.newProcessThread(this, this::execute);
+            engine.processStarted(this);
+            thread.start();
+        } else {
+            resumeSemaphore.release();
+        }
+    }
+
+    void suspend() {
+        engine.yieldToScheduler();
+        try {
+            resumeSemaphore.acquire();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    void interrupt() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /* Waits for an interrupted process thread to unwind, so a terminated engine leaves none behind. */
+    void awaitExit() {
+        if (thread == null) {
+            return;
+        }
+        boolean isInterrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute() {
+        try {
+            body.run();
+        } catch (Throwable e) {
+            if (!engine.isTerminated()) {
+                failure = e;
+            }
+        } finally {
+            isFinished = true;
+            if (!engine.isTerminated()) {
+                engine.processFinished(this);
+                completionCondition.signalAll();
+                engine.yieldToScheduler();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.SplittableRandom;
+
+/*
+ * Per-entity random stream. Every entity gets its own SplittableRandom split from the run seed in
+ * creation order, so its draws do not depend on how other entities interleave, and every draw
+ * goes through the SimulationJournal so a recorded run can be replayed value for value.
+ */
+public class SimulationRandom {
+    private final SplittableRandom random;
+    private final SimulationJournal journal;
+    private final int entityId;
+
+    public SimulationRandom(long seed, SimulationJournal journal) {
+        this(new SplittableRandom(seed), journal, 0);
+    }
+
+    private SimulationRandom(SplittableRandom random, SimulationJournal journal, int entityId) {
+        this.random = random;
+        this.journal = journal;
+        this.entityId = entityId;
+    }
+
+    public SimulationRandom split(int entityId) {
+        return new SimulationRandom(random.split(), journal, entityId);
+    }
+
+    public int nextInt(String stream, int origin, int bound) {
+        return (int) journal.draw(entityId, stream, () -> random.nextInt(origin, bound));
+    }
+
+    public long nextLong(String stream, long origin, long bound) {
+        return journal.draw(entityId, stream, () -> random.nextLong(origin, bound));
+    }
+}
@@ -0,0 +1,112 @@
+package asia.pacific.airport.simulation.system;
+
+/*
+ * Outcome of one or more simulation runs. Results of independent runs merge by adding their
+ * counts and merging their waiting time histograms, so a batch reports one combined distribution.
+ * A run that stalled before serving every airplane still merges, but is counted as stalled so a
+ * report can tell its partial distribution apart from a complete one.
+ */
+public class SimulationResult {
+    private final int runCount;
+    private final int stalledRunCount;
+    private final long airplaneCount;
+    private final long expectedAirplaneCount;
+    private final long passengerCount;
+    private final long totalSimulatedTime;
+    private final LatencyHistogram.Snapshot[] waitingTimes;
+
+    public SimulationResult(
+            int airplaneCount,
+            int expectedAirplaneCount,
+            boolean isCompleted,
+            int passengerCount,
+            long simulatedTime,
+            WaitingTimeRecorder waitingTimeRecorder
+    ) {
+        this(
+                1,
+                isCompleted ? 0 : 1,
+                airplaneCount,
+                expectedAirplaneCount,
+                passengerCount,
+                simulatedTime,
+                snapshot(waitingTimeRecorder)
+        );
+    }
+
+    private SimulationResult(
+            int runCount,
+            int stalledRunCount,
+            long airplaneCount,
+            long expectedAirplaneCount,
+            long passengerCount,
+            long totalSimulatedTime,
+            LatencyHistogram.Snapshot[] waitingTimes
+    ) {
+        this.runCount = runCount;
+        this.stalledRunCount = stalledRunCount;
+        this.airplaneCount = airplaneCount;
+        this.expectedAirplaneCount = expectedAirplaneCount;
+        this.passengerCount = passengerCount;
+        this.totalSimulatedTime = totalSimulatedTime;
+        this.waitingTimes = waitingTimes;
+    }
+
+    private static LatencyHistogram.Snapshot[] snapshot(WaitingTimeRecorder waitingTimeRecorder) {
+        AirplaneAction[] actions = AirplaneAction.values();
+        LatencyHistogram.Snapshot[] waitingTimes = new LatencyHistogram.Snapshot[actions.length];
+        for (AirplaneAction action : actions) {
+            waitingTimes[action.ordinal()] = waitingTimeRecorder.snapshot(action);
+        }
+        return waitingTimes;
+    }
+
+    public SimulationResult merge(SimulationResult other) {
+        LatencyHistogram.Snapshot[] mergedWaitingTimes = new LatencyHistogram.Snapshot[waitingTimes.length];
+        for (int i = 0; i < waitingTimes.length; i++) {
+            mergedWaitingTimes[i] = waitingTimes[i].merge(other.waitingTimes[i]);
+        }
+        return new SimulationResult(
+                runCount + other.runCount,
+                stalledRunCount + other.stalledRunCount,
+                airplaneCount + other.airplaneCount,
+                expectedAirplaneCount + other.expectedAirplaneCount,
+                passengerCount + other.passengerCount,
+                totalSimulatedTime + other.totalSimulatedTime,
+                mergedWaitingTimes
+        );
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /* Runs that ran out of events before every expected airplane was served or diverted. */
+    public int getStalledRunCount() {
+        return stalledRunCount;
+    }
+
+    public boolean isCompleted() {
+        return stalledRunCount == 0;
+    }
+
+    public long getAirplaneCount() {
+        return airplaneCount;
+    }
+
+    public long getExpectedAirplaneCount() {
+        return expectedAirplaneCount;
+    }
+
+    public long getPassengerCount() {
+        return passengerCount;
+    }
+
+    public long getTotalSimulatedTime() {
+        return totalSimulatedTime;
+    }
+
+    public LatencyHistogram.Snapshot getWaitingTime(AirplaneAction action) {
+        return waitingTimes[action.ordinal()];
+    }
+}
@@ -0,0 +1,66 @@
+package asia.pacific.airport.simulation.system;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/*
+ * Creates the threads backing simulation processes. Virtual threads are looked up reflectively
+ * because the project still compiles for Java 8; on runtimes without Thread.ofVirtual() the
+ * factory falls back to daemon platform threads with a reduced stack size.
+ */
+public class SimulationThreadFactory {
+    private static final long PLATFORM_THREAD_STACK_SIZE = 256 * 1024;
+    private static final Object VIRTUAL_THREAD_BUILDER = lookUpVirtualThreadBuilder();
+    private static final Method VIRTUAL_THREAD_UNSTARTED = lookUpVirtualThreadUnstarted();
+    private final ThreadMode threadMode;
+
+    public SimulationThreadFactory(ThreadMode threadMode) {
+        this.threadMode = threadMode == ThreadMode.VIRTUAL && !isVirtualThreadSupported() ?
+                ThreadMode.PLATFORM :
+                threadMode;
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_BUILDER != null && VIRTUAL_THREAD_UNSTARTED != null;
+    }
+
+    public static ThreadMode defaultThreadMode() {
+        return isVirtualThreadSupported() ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM;
+    }
+
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    public Thread newThread(String name, Runnable body) {
+        if (threadMode == ThreadMode.VIRTUAL) {
+            try {
+                Thread thread = (Thread) VIRTUAL_THREAD_UNSTARTED.invoke(VIRTUAL_THREAD_BUILDER, body);
+                thread.setName(name);
+                return thread;
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        Thread thread = new Thread(null, body, name, PLATFORM_THREAD_STACK_SIZE);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static Object lookUpVirtualThreadBuilder() {
+        try {
+            return Thread.class.getMethod("ofVirtual").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static Method lookUpVirtualThreadUnstarted() {
+        try {
+            return Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package asia.pacific.airport.simulation.system;
 
-public class Passenger extends Thread{
-
+public enum ThreadMode {
+    PLATFORM,
+    VIRTUAL
 }
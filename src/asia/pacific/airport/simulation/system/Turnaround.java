@@ -0,0 +1,78 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/* Start and finish time of every task of one airplane's turnaround. */
+public class Turnaround {
+    private final TurnaroundPlan turnaroundPlan;
+    private final long startTime;
+    private final long[] taskStartTimes;
+    private final long[] taskEndTimes;
+    private long endTime;
+
+    public Turnaround(TurnaroundPlan turnaroundPlan, long startTime) {
+        this.turnaroundPlan = turnaroundPlan;
+        this.startTime = startTime;
+        int taskCount = turnaroundPlan.getTasks().size();
+        taskStartTimes = new long[taskCount];
+        taskEndTimes = new long[taskCount];
+    }
+
+    void taskStarted(TurnaroundTask task, long time) {
+        taskStartTimes[task.getIndex()] = time;
+    }
+
+    void taskFinished(TurnaroundTask task, long time) {
+        taskEndTimes[task.getIndex()] = time;
+    }
+
+    void finish(long time) {
+        endTime = time;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getTaskStartTime(TurnaroundTask task) {
+        return taskStartTimes[task.getIndex()];
+    }
+
+    public long getDuration() {
+        return endTime - startTime;
+    }
+
+    public long getTaskDuration(TurnaroundTask task) {
+        return taskEndTimes[task.getIndex()] - taskStartTimes[task.getIndex()];
+    }
+
+    /*
+     * Walks back from the task that finished last through the dependency that finished last,
+     * which is the one that held up each task's start.
+     */
+    public List<TurnaroundTask> getCriticalPath() {
+        TurnaroundTask criticalTask = null;
+        for (TurnaroundTask task : turnaroundPlan.getTasks()) {
+            if (criticalTask == null || taskEndTimes[task.getIndex()] >= taskEndTimes[criticalTask.getIndex()]) {
+                criticalTask = task;
+            }
+        }
+
+        List<TurnaroundTask> criticalPath = new ArrayList<>();
+        while (criticalTask != null) {
+            criticalPath.add(criticalTask);
+            TurnaroundTask criticalDependency = null;
+            for (TurnaroundTask dependency : criticalTask.getDependencies()) {
+                if (criticalDependency == null
+                        || taskEndTimes[dependency.getIndex()] >= taskEndTimes[criticalDependency.getIndex()]) {
+                    criticalDependency = dependency;
+                }
+            }
+            criticalTask = criticalDependency;
+        }
+        Collections.reverse(criticalPath);
+        return criticalPath;
+    }
+}
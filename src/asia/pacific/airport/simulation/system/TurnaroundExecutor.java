@@ -0,0 +1,99 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Runs a TurnaroundPlan for each docked airplane. Every task starts as soon as the futures of its
+ * dependencies complete, and each service completes its own future from a simulation event, so
+ * independent services overlap in simulated time without a process or thread per task. Finished
+ * turnarounds are aggregated into per-task durations and how often each task was on the critical
+ * path, which shows the service that bounds turnaround time across the whole run.
+ */
+public class TurnaroundExecutor {
+    private final SimulationEngine engine;
+    private final TurnaroundPlan turnaroundPlan;
+    private final LatencyHistogram turnaroundTime;
+    private final long[] totalTaskDurations;
+    private final int[] criticalPathCounts;
+    private int turnaroundCount;
+
+    public TurnaroundExecutor(SimulationEngine engine, TurnaroundPlan turnaroundPlan) {
+        this.engine = engine;
+        this.turnaroundPlan = turnaroundPlan;
+        turnaroundTime = new LatencyHistogram();
+        int taskCount = turnaroundPlan.getTasks().size();
+        totalTaskDurations = new long[taskCount];
+        criticalPathCounts = new int[taskCount];
+        turnaroundCount = 0;
+    }
+
+    public CompletableFuture<Turnaround> execute(Airplane airplane) {
+        List<TurnaroundTask> tasks = turnaroundPlan.getTasks();
+        Turnaround turnaround = new Turnaround(turnaroundPlan, engine.now());
+        CompletableFuture<?>[] taskCompletions = new CompletableFuture<?>[tasks.size()];
+
+        for (TurnaroundTask task : tasks) {
+            List<TurnaroundTask> dependencies = task.getDependencies();
+            CompletableFuture<?>[] dependencyCompletions = new CompletableFuture<?>[dependencies.size()];
+            for (int i = 0; i < dependencies.size(); i++) {
+                dependencyCompletions[i] = taskCompletions[dependencies.get(i).getIndex()];
+            }
+
+            taskCompletions[task.getIndex()] = CompletableFuture.allOf(dependencyCompletions)
+                    .thenCompose(ignored -> {
+                        turnaround.taskStarted(task, engine.now());
+                        return task.start(airplane);
+                    })
+                    .thenRun(() -> {
+                        turnaround.taskFinished(task, engine.now());
+                        FlightRecorderEvents.turnaroundPhase(
+                                airplane,
+                                task,
+                                turnaround.getTaskStartTime(task) - turnaround.getStartTime(),
+                                turnaround.getTaskDuration(task),
+                                engine.getAirportTime().getElapsedTime()
+                        );
+                    });
+        }
+
+        return CompletableFuture.allOf(taskCompletions).thenApply(ignored -> {
+            turnaround.finish(engine.now());
+            record(turnaround);
+            FlightRecorderEvents.turnaround(airplane, turnaround, engine.getAirportTime().getElapsedTime());
+            return turnaround;
+        });
+    }
+
+    private void record(Turnaround turnaround) {
+        turnaroundTime.record(turnaround.getDuration());
+        for (TurnaroundTask task : turnaroundPlan.getTasks()) {
+            totalTaskDurations[task.getIndex()] += turnaround.getTaskDuration(task);
+        }
+        for (TurnaroundTask task : turnaround.getCriticalPath()) {
+            criticalPathCounts[task.getIndex()]++;
+        }
+        turnaroundCount++;
+    }
+
+    public void printStatistics() {
+        LatencyHistogram.Snapshot turnaroundTime = this.turnaroundTime.snapshot();
+
+        System.out.printf(
+                "Turnaround time\t\t\t: %.3fs avg, %.3fs p90, %.3fs max over %d turnarounds%n",
+                turnaroundTime.getMean() / 1000.0,
+                turnaroundTime.getValueAtPercentile(90) / 1000.0,
+                turnaroundTime.getMaximum() / 1000.0,
+                turnaroundTime.getCount()
+        );
+        System.out.printf("%-22s %12s %14s%n", "Turnaround service", "avg (s)", "critical path");
+        for (TurnaroundTask task : turnaroundPlan.getTasks()) {
+            System.out.printf(
+                    "%-22s %12.3f %13.1f%%%n",
+                    task.getName(),
+                    turnaroundCount > 0 ? totalTaskDurations[task.getIndex()] / 1000.0 / turnaroundCount : 0.0,
+                    turnaroundCount > 0 ? 100.0 * criticalPathCounts[task.getIndex()] / turnaroundCount : 0.0
+            );
+        }
+    }
+}
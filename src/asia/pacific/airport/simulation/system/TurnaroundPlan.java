@@ -0,0 +1,55 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/*
+ * Ground services performed between docking and the take-off request, as a dependency graph.
+ * A task can only depend on tasks added before it, so the task list is always a topological
+ * order and the graph can never contain a cycle. Passengers only board a fully fuelled airplane.
+ */
+public class TurnaroundPlan {
+    private final List<TurnaroundTask> tasks;
+
+    public TurnaroundPlan() {
+        tasks = new ArrayList<>();
+    }
+
+    public static TurnaroundPlan standard() {
+        TurnaroundPlan turnaroundPlan = new TurnaroundPlan();
+        TurnaroundTask refueling = turnaroundPlan.addTask("Refueling", Airplane::requestToRefuel);
+        TurnaroundTask disembarking = turnaroundPlan.addTask("Disembarking", Airplane::disembarkPassengers);
+        TurnaroundTask baggageUnloading = turnaroundPlan.addTask("Baggage Unloading", Airplane::unloadBaggage);
+        TurnaroundTask cleaning = turnaroundPlan.addTask("Cleaning", Airplane::clean, disembarking);
+        TurnaroundTask catering = turnaroundPlan.addTask("Catering", Airplane::refillSupplies, disembarking);
+        TurnaroundTask baggageLoading = turnaroundPlan.addTask("Baggage Loading", Airplane::loadBaggage, baggageUnloading);
+        turnaroundPlan.addTask("Boarding", Airplane::embarkPassengers, refueling, cleaning, catering, baggageLoading);
+        return turnaroundPlan;
+    }
+
+    public TurnaroundTask addTask(
+            String name,
+            Function<Airplane, CompletableFuture<Void>> service,
+            TurnaroundTask... dependencies
+    ) {
+        for (TurnaroundTask dependency : dependencies) {
+            if (dependency.getIndex() >= tasks.size() || tasks.get(dependency.getIndex()) != dependency) {
+                throw new IllegalArgumentException(String.format(
+                        "%s depends on %s, which is not part of this turnaround plan.", name, dependency.getName()
+                ));
+            }
+        }
+
+        TurnaroundTask task = new TurnaroundTask(tasks.size(), name, service, Arrays.asList(dependencies));
+        tasks.add(task);
+        return task;
+    }
+
+    public List<TurnaroundTask> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+}
@@ -0,0 +1,41 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class TurnaroundTask {
+    private final int index;
+    private final String name;
+    private final Function<Airplane, CompletableFuture<Void>> service;
+    private final List<TurnaroundTask> dependencies;
+
+    TurnaroundTask(
+            int index,
+            String name,
+            Function<Airplane, CompletableFuture<Void>> service,
+            List<TurnaroundTask> dependencies
+    ) {
+        this.index = index;
+        this.name = name;
+        this.service = service;
+        this.dependencies = Collections.unmodifiableList(dependencies);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<TurnaroundTask> getDependencies() {
+        return dependencies;
+    }
+
+    public CompletableFuture<Void> start(Airplane airplane) {
+        return service.apply(airplane);
+    }
+}
@@ -0,0 +1,28 @@
+package asia.pacific.airport.simulation.system;
+
+public class WaitingTimeRecorder {
+    private final LatencyHistogram[] histograms;
+
+    public WaitingTimeRecorder() {
+        histograms = new LatencyHistogram[AirplaneAction.values().length * 2];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    private static int indexOf(AirplaneAction action, boolean isEmergency) {
+        return action.ordinal() * 2 + (isEmergency ? 1 : 0);
+    }
+
+    public void record(AirplaneAction action, boolean isEmergency, long waitingTime) {
+        histograms[indexOf(action, isEmergency)].record(waitingTime);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(AirplaneAction action, boolean isEmergency) {
+        return histograms[indexOf(action, isEmergency)].snapshot();
+    }
+
+    public LatencyHistogram.Snapshot snapshot(AirplaneAction action) {
+        return snapshot(action, false).merge(snapshot(action, true));
+    }
+}
@@ -0,0 +1,115 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AirplaneSchedulingQueueTest {
+    private static final Predicate<AircraftClass> ANY_GATE = aircraftClass -> true;
+
+    private SimulationEngine engine;
+    private SimulationConfig config;
+
+    @Before
+    public void setUp() {
+        engine = SimulationFixture.engine();
+        config = SimulationFixture.config(new Properties());
+    }
+
+    @Test
+    public void removingArbitraryAirplanesKeepsTheRestInRequestOrder() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<Airplane> airplanes = new ArrayList<>();
+            for (int id = 1; id <= 300; id++) {
+                airplanes.add(airplane(id, AirplaneAction.LANDING, false));
+            }
+            Collections.shuffle(airplanes, random);
+
+            AirplaneSchedulingQueue queue = new AirplaneSchedulingQueue();
+            for (Airplane airplane : airplanes) {
+                queue.offer(airplane);
+            }
+            boolean[] isRemoved = new boolean[301];
+            for (Airplane airplane : airplanes.subList(0, 120)) {
+                assertTrue(queue.remove(airplane));
+                assertFalse(queue.remove(airplane));
+                isRemoved[airplane.getId()] = true;
+            }
+            assertEquals(180, queue.size());
+
+            int previousId = 0;
+            Airplane airplane;
+            while ((airplane = queue.poll(ANY_GATE, true)) != null) {
+                assertFalse(isRemoved[airplane.getId()]);
+                assertTrue(airplane.getId() > previousId);
+                previousId = airplane.getId();
+            }
+            assertTrue(queue.isEmpty());
+            assertEquals(-1, queue.getQueuedRequestTime(airplanes.get(0)));
+        }
+    }
+
+    @Test
+    public void reofferedAirplaneMovesToTheEmergencyLane() {
+        AirplaneSchedulingQueue queue = new AirplaneSchedulingQueue();
+        Airplane first = airplane(1, AirplaneAction.LANDING, false);
+        Airplane second = airplane(2, AirplaneAction.LANDING, false);
+        queue.offer(first);
+        queue.offer(second);
+
+        assertTrue(queue.remove(second));
+        second.setActivityEmergency(true);
+        queue.offer(second);
+
+        assertEquals(1, queue.getEmergencyCount());
+        assertSame(second, queue.poll(ANY_GATE, true));
+        assertSame(first, queue.poll(ANY_GATE, true));
+    }
+
+    @Test
+    public void queuedAirplaneCanNotBeOfferedTwice() {
+        AirplaneSchedulingQueue queue = new AirplaneSchedulingQueue();
+        Airplane airplane = airplane(1, AirplaneAction.TAKE_OFF, false);
+        queue.offer(airplane);
+        try {
+            queue.offer(airplane);
+            fail("an airplane can only be queued once");
+        } catch (IllegalStateException e) {
+            assertEquals(1, queue.size());
+        }
+    }
+
+    @Test
+    public void landingWithAFreeGateIsNotHeldBehindAnotherClass() {
+        AirplaneSchedulingQueue queue = new AirplaneSchedulingQueue();
+        Airplane wideBody = SimulationFixture.airplane(
+                1, engine, config, AircraftType.wideBody(config), AirplaneAction.LANDING, false
+        );
+        Airplane narrowBody = airplane(2, AirplaneAction.LANDING, false);
+        queue.offer(wideBody);
+        queue.offer(narrowBody);
+
+        assertSame(wideBody, queue.peekLanding());
+        assertNull(queue.poll(aircraftClass -> false, true));
+        assertSame(narrowBody, queue.poll(aircraftClass -> aircraftClass == AircraftClass.NARROW_BODY, false));
+        assertSame(wideBody, queue.poll(ANY_GATE, false));
+    }
+
+    private Airplane airplane(int id, AirplaneAction action, boolean isEmergency) {
+        return SimulationFixture.airplane(id, engine, config, action, isEmergency);
+    }
+}
@@ -0,0 +1,166 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class EventJournalTest {
+    private static final int RECORDS_PER_SEGMENT = 10;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SimulationEngine engine;
+    private String journalPath;
+
+    @Before
+    public void setUp() throws IOException {
+        engine = SimulationFixture.engine();
+        journalPath = temporaryFolder.newFolder().toPath().resolve("events.journal").toString();
+    }
+
+    @Test
+    public void ringWrapsWithoutLosingOrReorderingRecords() throws IOException {
+        // three and a bit times round the 16384-slot ring
+        int recordCount = 50_000;
+        SimulationConfig config = config(1024 * 1024);
+        Airplane airplane = SimulationFixture.airplane(7, engine, config, AirplaneAction.LANDING, true);
+
+        EventJournal eventJournal = EventJournal.create(config);
+        for (int i = 0; i < recordCount; i++) {
+            eventJournal.record(i, airplane, FlightEventType.LANDED, i % 3, i);
+        }
+        eventJournal.close();
+
+        List<ByteBuffer> records = readRecords();
+        assertEquals(recordCount, eventJournal.getRecordCount());
+        assertEquals(recordCount, records.size());
+        for (int i = 0; i < recordCount; i++) {
+            ByteBuffer record = records.get(i);
+            assertEquals(i, record.getLong());
+            assertEquals(7, record.getInt());
+            assertEquals(FlightEventType.LANDED.getCode(), record.getShort());
+            assertEquals(EventJournal.EMERGENCY_FLAG, record.getShort());
+            assertEquals(i % 3, record.getInt());
+            assertEquals(i, record.getInt());
+        }
+    }
+
+    @Test
+    public void fullSegmentsRollOverAndTheLastIsTrimmed() throws IOException {
+        // room for RECORDS_PER_SEGMENT records and part of another, which must stay unused
+        SimulationConfig config = config(EventJournal.HEADER_SIZE + RECORDS_PER_SEGMENT * EventJournal.RECORD_SIZE + 7);
+        Airplane airplane = SimulationFixture.airplane(1, engine, config, AirplaneAction.TAKE_OFF, false);
+
+        EventJournal eventJournal = EventJournal.create(config);
+        for (int i = 0; i < 95; i++) {
+            eventJournal.record(i, airplane, FlightEventType.TOOK_OFF, 0, i);
+        }
+        eventJournal.close();
+
+        for (int segmentIndex = 0; segmentIndex < 10; segmentIndex++) {
+            Path segmentPath = EventJournal.segmentPath(journalPath, segmentIndex);
+            ByteBuffer segment = ByteBuffer.wrap(Files.readAllBytes(segmentPath));
+            int recordCount = segmentIndex < 9 ? RECORDS_PER_SEGMENT : 5;
+            assertEquals(EventJournal.HEADER_SIZE + recordCount * EventJournal.RECORD_SIZE, segment.remaining());
+            assertEquals(segmentIndex, segment.getLong(Integer.BYTES * 2));
+
+            EventJournal.readHeader(segment, segmentPath);
+            for (int i = 0; i < recordCount; i++) {
+                assertEquals(segmentIndex * RECORDS_PER_SEGMENT + i, segment.getLong());
+                segment.position(segment.position() + EventJournal.RECORD_SIZE - Long.BYTES);
+            }
+        }
+        assertFalse(Files.exists(EventJournal.segmentPath(journalPath, 10)));
+    }
+
+    @Test
+    public void segmentsOfAPreviousJournalAreRemoved() throws IOException {
+        SimulationConfig config = config(EventJournal.HEADER_SIZE + EventJournal.RECORD_SIZE);
+        Airplane airplane = SimulationFixture.airplane(1, engine, config, AirplaneAction.LANDING, false);
+
+        EventJournal previousJournal = EventJournal.create(config);
+        for (int i = 0; i < 5; i++) {
+            previousJournal.record(i, airplane, FlightEventType.LANDED, 0, i);
+        }
+        previousJournal.close();
+
+        EventJournal eventJournal = EventJournal.create(config);
+        eventJournal.record(0, airplane, FlightEventType.LANDED, 0, 0);
+        eventJournal.close();
+
+        assertEquals(1, readRecords().size());
+        assertFalse(Files.exists(EventJournal.segmentPath(journalPath, 1)));
+    }
+
+    @Test
+    public void concurrentRecordersPublishEveryRecordOnceAndInTheirOwnOrder() throws Exception {
+        int threadCount = 4;
+        int recordsPerThread = 20_000;
+        SimulationConfig config = config(256 * 1024);
+        EventJournal eventJournal = EventJournal.create(config);
+
+        Thread[] recorders = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            Airplane airplane = SimulationFixture.airplane(t + 1, engine, config, AirplaneAction.LANDING, false);
+            recorders[t] = new Thread(() -> {
+                for (int i = 0; i < recordsPerThread; i++) {
+                    eventJournal.record(i, airplane, FlightEventType.LANDING_REQUESTED, 0, i);
+                }
+            });
+            recorders[t].start();
+        }
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+        eventJournal.close();
+
+        int[] nextValues = new int[threadCount];
+        for (ByteBuffer record : readRecords()) {
+            long time = record.getLong();
+            int airplaneId = record.getInt();
+            record.position(record.position() + Short.BYTES * 2 + Integer.BYTES);
+            assertEquals(nextValues[airplaneId - 1], time);
+            assertEquals(nextValues[airplaneId - 1]++, record.getInt());
+        }
+        int[] expectedValues = new int[threadCount];
+        Arrays.fill(expectedValues, recordsPerThread);
+        assertArrayEquals(expectedValues, nextValues);
+    }
+
+    private SimulationConfig config(long segmentSize) {
+        Properties properties = new Properties();
+        properties.setProperty(SimulationConfig.EVENT_JOURNAL_FILE, journalPath);
+        properties.setProperty(SimulationConfig.EVENT_JOURNAL_SEGMENT_SIZE, Long.toString(segmentSize));
+        return SimulationFixture.config(properties);
+    }
+
+    private List<ByteBuffer> readRecords() throws IOException {
+        List<ByteBuffer> records = new ArrayList<>();
+        Path segmentPath;
+        for (int i = 0; Files.exists(segmentPath = EventJournal.segmentPath(journalPath, i)); i++) {
+            ByteBuffer segment = EventJournal.readHeader(ByteBuffer.wrap(Files.readAllBytes(segmentPath)), segmentPath);
+            while (segment.hasRemaining()) {
+                ByteBuffer record = segment.slice();
+                record.limit(EventJournal.RECORD_SIZE);
+                records.add(record);
+                segment.position(segment.position() + EventJournal.RECORD_SIZE);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,122 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FlightPlanReaderTest {
+    private static final int ROW_COUNT = 40;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void rowsCrossingAWindowBoundaryAreReadWhole() throws IOException {
+        StringBuilder plan = new StringBuilder("flight_id,eta_ms,aircraft_type,passengers,emergency\r\n");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            if (i % 7 == 3) {
+                plan.append("# comment between rows\n\n");
+            }
+            plan.append(row(i)).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        File file = write(plan.toString());
+
+        // window sizes from just over the longest line put a boundary on every byte of a row
+        for (long windowSize = 56; windowSize <= 96; windowSize++) {
+            try (FlightPlanReader reader = new FlightPlanReader(file.getPath(), windowSize)) {
+                for (int i = 0; i < ROW_COUNT; i++) {
+                    assertRow(i, reader.next());
+                }
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    @Test
+    public void lastRowWithoutNewlineIsReadAfterARemap() throws IOException {
+        File file = write(row(0) + "\n" + row(1) + "\n" + row(2));
+
+        for (long windowSize = 24; windowSize <= 48; windowSize++) {
+            try (FlightPlanReader reader = new FlightPlanReader(file.getPath(), windowSize)) {
+                assertRow(0, reader.next());
+                assertRow(1, reader.next());
+                assertRow(2, reader.next());
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    @Test
+    public void rowLongerThanTheWindowIsRejected() throws IOException {
+        File file = write(row(0) + "\n" + row(1) + "\n");
+
+        try (FlightPlanReader reader = new FlightPlanReader(file.getPath(), 16)) {
+            reader.next();
+            fail("a row longer than the window must be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 1 is longer than 16 bytes"));
+        }
+    }
+
+    @Test
+    public void emptyPlanHasNoRows() throws IOException {
+        try (FlightPlanReader reader = new FlightPlanReader(write("").getPath(), 16)) {
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void planLargerThanOneDefaultWindowIsRemapped() throws IOException {
+        File file = temporaryFolder.newFile("large-flight-plan.csv");
+        int rowCount = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (long size = 0; size <= 64L * 1024 * 1024; rowCount++) {
+                String row = row(rowCount) + "\n";
+                writer.write(row);
+                size += row.length();
+            }
+        }
+
+        try (FlightPlanReader reader = new FlightPlanReader(file.getPath())) {
+            for (int i = 0; i < rowCount; i++) {
+                FlightPlanEntry entry = reader.next();
+                assertEquals(flightId(i), entry.getFlightId());
+                assertEquals(i * 10L, entry.getEstimatedArrivalTime());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    private File write(String plan) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), plan.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String row(int i) {
+        return String.format("%s, %d,A320,%d,%s", flightId(i), i * 10L, 100 + i, i % 5 == 0 ? "true" : "no");
+    }
+
+    private static String flightId(int i) {
+        return "FL" + i;
+    }
+
+    private static void assertRow(int i, FlightPlanEntry entry) {
+        assertEquals(flightId(i), entry.getFlightId());
+        assertEquals(i * 10L, entry.getEstimatedArrivalTime());
+        assertEquals("A320", entry.getAircraftType());
+        assertEquals(100 + i, entry.getPassengerCount());
+        assertEquals(i % 5 == 0, entry.isEmergency());
+    }
+}
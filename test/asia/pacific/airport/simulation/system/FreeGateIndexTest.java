@@ -0,0 +1,153 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FreeGateIndexTest {
+    @Test
+    public void acquiresTheLowestFreeGateAcrossWords() {
+        FreeGateIndex freeGateIndex = new FreeGateIndex(gateIndexes(200));
+
+        for (int slot = 0; slot < 200; slot++) {
+            assertEquals(gateIndexOf(slot), freeGateIndex.acquire());
+        }
+        assertEquals(-1, freeGateIndex.acquire());
+        assertEquals(0, freeGateIndex.getFreeCount());
+
+        freeGateIndex.release(130);
+        freeGateIndex.release(5);
+        assertEquals(2, freeGateIndex.getFreeCount());
+        assertEquals(gateIndexOf(5), freeGateIndex.acquire());
+        assertEquals(gateIndexOf(130), freeGateIndex.acquire());
+        assertEquals(-1, freeGateIndex.acquire());
+    }
+
+    @Test
+    public void unusedBitsOfAPartialLastWordAreNeverHandedOut() {
+        FreeGateIndex freeGateIndex = new FreeGateIndex(gateIndexes(70));
+
+        assertEquals(0b11L, freeGateIndex.getWordHints(0));
+        for (int slot = 0; slot < 70; slot++) {
+            assertEquals(gateIndexOf(slot), freeGateIndex.acquire());
+        }
+        assertEquals(-1, freeGateIndex.acquire());
+    }
+
+    @Test
+    public void summaryBitIsClearedOnceItsWordIsFoundEmptyAndSetAgainOnRelease() {
+        FreeGateIndex freeGateIndex = new FreeGateIndex(gateIndexes(192));
+        assertEquals(0b111L, freeGateIndex.getWordHints(0));
+
+        for (int slot = 0; slot < 64; slot++) {
+            freeGateIndex.acquire();
+        }
+        // only a hint: the empty word keeps its bit until an acquire finds it empty
+        assertEquals(0b111L, freeGateIndex.getWordHints(0));
+        assertEquals(gateIndexOf(64), freeGateIndex.acquire());
+        assertEquals(0b110L, freeGateIndex.getWordHints(0));
+
+        freeGateIndex.release(63);
+        assertEquals(0b111L, freeGateIndex.getWordHints(0));
+        assertEquals(gateIndexOf(63), freeGateIndex.acquire());
+    }
+
+    @Test
+    public void summaryWordsCoverMoreThan4096Gates() {
+        int gateCount = 64 * 64 + 100;
+        FreeGateIndex freeGateIndex = new FreeGateIndex(gateIndexes(gateCount));
+        assertEquals(-1L, freeGateIndex.getWordHints(0));
+        assertEquals(0b11L, freeGateIndex.getWordHints(1));
+
+        for (int slot = 0; slot < gateCount; slot++) {
+            assertEquals(gateIndexOf(slot), freeGateIndex.acquire());
+        }
+        assertEquals(-1, freeGateIndex.acquire());
+        assertEquals(0L, freeGateIndex.getWordHints(0));
+        assertEquals(0L, freeGateIndex.getWordHints(1));
+
+        freeGateIndex.release(4100);
+        assertEquals(0b1L, freeGateIndex.getWordHints(1));
+        assertEquals(gateIndexOf(4100), freeGateIndex.acquire());
+    }
+
+    @Test
+    public void concurrentAcquireAndReleaseNeverHandOutAGateTwice() throws Exception {
+        int gateCount = 300;
+        FreeGateIndex freeGateIndex = new FreeGateIndex(gateIndexes(gateCount));
+        int[] owners = new int[gateCount * 2];
+        Thread[] workers = new Thread[8];
+        boolean[] isClashing = new boolean[1];
+
+        for (int t = 0; t < workers.length; t++) {
+            int worker = t + 1;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int[] heldGates = new int[64];
+                int heldCount = 0;
+                for (int i = 0; i < 100_000; i++) {
+                    if (heldCount < heldGates.length && (heldCount == 0 || random.nextBoolean())) {
+                        int gateIndex = freeGateIndex.acquire();
+                        if (gateIndex >= 0) {
+                            synchronized (owners) {
+                                isClashing[0] |= owners[gateIndex] != 0;
+                                owners[gateIndex] = worker;
+                            }
+                            heldGates[heldCount++] = gateIndex;
+                        }
+                    } else {
+                        int gateIndex = heldGates[--heldCount];
+                        synchronized (owners) {
+                            owners[gateIndex] = 0;
+                        }
+                        freeGateIndex.release(slotOf(gateIndex));
+                    }
+                }
+                while (heldCount > 0) {
+                    int gateIndex = heldGates[--heldCount];
+                    synchronized (owners) {
+                        owners[gateIndex] = 0;
+                    }
+                    freeGateIndex.release(slotOf(gateIndex));
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertFalse("a gate was handed to two workers at once", isClashing[0]);
+        assertEquals(gateCount, freeGateIndex.getFreeCount());
+        BitSet acquiredSlots = new BitSet(gateCount);
+        for (int i = 0; i < gateCount; i++) {
+            int gateIndex = freeGateIndex.acquire();
+            assertTrue(gateIndex >= 0);
+            assertFalse(acquiredSlots.get(slotOf(gateIndex)));
+            acquiredSlots.set(slotOf(gateIndex));
+        }
+        assertEquals(-1, freeGateIndex.acquire());
+    }
+
+    /* Slot i of the index stands for gate 2i + 1, so gate indexes and slots can not be confused. */
+    private static int[] gateIndexes(int gateCount) {
+        int[] gateIndexes = new int[gateCount];
+        for (int slot = 0; slot < gateCount; slot++) {
+            gateIndexes[slot] = gateIndexOf(slot);
+        }
+        return gateIndexes;
+    }
+
+    private static int gateIndexOf(int slot) {
+        return slot * 2 + 1;
+    }
+
+    private static int slotOf(int gateIndex) {
+        return (gateIndex - 1) / 2;
+    }
+}
@@ -0,0 +1,175 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HoldingStackTest {
+    private static final long START_TIME = 1_000;
+    private static final long BUCKET_DURATION = 10;
+    private static final long FUEL_EMERGENCY_DELAY = 30;
+    private static final long DIVERSION_DELAY = 50;
+
+    private SimulationEngine engine;
+    private SimulationConfig config;
+    private Map<Airplane, Long> fuelEmergencyTimes;
+    private Map<Airplane, Long> diversionTimes;
+    private long now;
+
+    @Before
+    public void setUp() {
+        engine = SimulationFixture.engine();
+        config = SimulationFixture.config(new Properties());
+        fuelEmergencyTimes = new IdentityHashMap<>();
+        diversionTimes = new IdentityHashMap<>();
+    }
+
+    @Test
+    public void deadlinesFireWithinOneBucketWhileTheWheelWrapsManyTimes() {
+        // 8 buckets of 10 ms, so 1000 ms of arrivals go round the wheel more than ten times
+        HoldingStack holdingStack = new HoldingStack(START_TIME, BUCKET_DURATION, DIVERSION_DELAY);
+        Map<Airplane, Long> enterTimes = new IdentityHashMap<>();
+        int id = 0;
+
+        for (now = START_TIME; now < START_TIME + 1_100; now++) {
+            if (now < START_TIME + 1_000 && now % 7 == 0) {
+                Airplane airplane = airplane(++id);
+                enterTimes.put(airplane, now);
+                holdingStack.enter(airplane, now, now + FUEL_EMERGENCY_DELAY, now + DIVERSION_DELAY, false);
+            }
+            expire(holdingStack);
+        }
+
+        assertTrue(holdingStack.isEmpty());
+        assertEquals(id, holdingStack.getEnteredCount());
+        assertEquals(id, holdingStack.getFuelEmergencyCount());
+        assertEquals(id, holdingStack.getDiversionCount());
+        for (Map.Entry<Airplane, Long> enterTime : enterTimes.entrySet()) {
+            assertFiredWithinOneBucket(enterTime.getValue() + FUEL_EMERGENCY_DELAY, fuelEmergencyTimes.get(enterTime.getKey()));
+            assertFiredWithinOneBucket(enterTime.getValue() + DIVERSION_DELAY, diversionTimes.get(enterTime.getKey()));
+        }
+    }
+
+    @Test
+    public void airplaneThatLeavesIsNotExpiredWhenTheWheelComesRoundToItsSlot() {
+        HoldingStack holdingStack = new HoldingStack(START_TIME, BUCKET_DURATION, DIVERSION_DELAY);
+        Airplane landing = airplane(1);
+        Airplane holding = airplane(2);
+
+        now = START_TIME;
+        holdingStack.enter(landing, now, now + FUEL_EMERGENCY_DELAY, now + DIVERSION_DELAY, false);
+        holdingStack.enter(holding, now, now + FUEL_EMERGENCY_DELAY, now + DIVERSION_DELAY, false);
+        assertTrue(holdingStack.leave(landing));
+        assertFalse(holdingStack.leave(landing));
+
+        for (; now < START_TIME + 10 * 8 * BUCKET_DURATION; now++) {
+            expire(holdingStack);
+        }
+
+        assertFalse(fuelEmergencyTimes.containsKey(landing));
+        assertFalse(diversionTimes.containsKey(landing));
+        assertTrue(diversionTimes.containsKey(holding));
+        assertEquals(1, holdingStack.getDiversionCount());
+    }
+
+    @Test
+    public void emergencyGoesStraightToItsDiversionDeadline() {
+        HoldingStack holdingStack = new HoldingStack(START_TIME, BUCKET_DURATION, DIVERSION_DELAY);
+        Airplane airplane = airplane(1);
+
+        now = START_TIME + 3;
+        holdingStack.enter(airplane, now, now + FUEL_EMERGENCY_DELAY, now + DIVERSION_DELAY, true);
+        for (; now < START_TIME + 100; now++) {
+            expire(holdingStack);
+        }
+
+        assertNull(fuelEmergencyTimes.get(airplane));
+        assertFiredWithinOneBucket(START_TIME + 3 + DIVERSION_DELAY, diversionTimes.get(airplane));
+        assertEquals(0, holdingStack.getFuelEmergencyCount());
+    }
+
+    @Test
+    public void bucketsStayAnchoredToTheStartTimeAfterTheStackEmpties() {
+        HoldingStack holdingStack = new HoldingStack(START_TIME, BUCKET_DURATION, DIVERSION_DELAY);
+
+        now = START_TIME + 4;
+        holdingStack.enter(airplane(1), now, now + FUEL_EMERGENCY_DELAY, now + DIVERSION_DELAY, false);
+        assertEquals(START_TIME + BUCKET_DURATION, holdingStack.getNextExpiryTime());
+        for (; now < START_TIME + 100; now++) {
+            expire(holdingStack);
+        }
+        assertTrue(holdingStack.isEmpty());
+
+        // re-entering several revolutions later starts from the bucket of the new entry
+        now = START_TIME + 1_234;
+        Airplane airplane = airplane(2);
+        holdingStack.enter(airplane, now, now + FUEL_EMERGENCY_DELAY, now + DIVERSION_DELAY, false);
+        assertEquals(START_TIME + 1_240, holdingStack.getNextExpiryTime());
+        for (; now < START_TIME + 1_400; now++) {
+            expire(holdingStack);
+        }
+        assertFiredWithinOneBucket(START_TIME + 1_234 + FUEL_EMERGENCY_DELAY, fuelEmergencyTimes.get(airplane));
+        assertFiredWithinOneBucket(START_TIME + 1_234 + DIVERSION_DELAY, diversionTimes.get(airplane));
+    }
+
+    @Test
+    public void deadlineBeyondTheHorizonIsRejected() {
+        HoldingStack holdingStack = new HoldingStack(START_TIME, BUCKET_DURATION, DIVERSION_DELAY);
+        try {
+            holdingStack.enter(airplane(1), START_TIME, START_TIME + 30, START_TIME + 10 * DIVERSION_DELAY, true);
+            fail("a deadline beyond the horizon must be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("beyond the holding horizon"));
+        }
+    }
+
+    @Test
+    public void handlersSeeDeadlinesOfTheSameBucketTogether() {
+        HoldingStack holdingStack = new HoldingStack(START_TIME, BUCKET_DURATION, DIVERSION_DELAY);
+        List<Airplane> airplanes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Airplane airplane = airplane(i + 1);
+            airplanes.add(airplane);
+            holdingStack.enter(airplane, START_TIME + i, START_TIME + 20 + i, START_TIME + 45, false);
+        }
+
+        now = START_TIME + 30;
+        expire(holdingStack);
+        for (Airplane airplane : airplanes) {
+            assertEquals(Long.valueOf(START_TIME + 30), fuelEmergencyTimes.get(airplane));
+        }
+        assertEquals(5, holdingStack.size());
+    }
+
+    private void expire(HoldingStack holdingStack) {
+        holdingStack.expire(
+                now,
+                airplane -> assertNull(fuelEmergencyTimes.put(airplane, now)),
+                airplane -> assertNull(diversionTimes.put(airplane, now))
+        );
+    }
+
+    private Airplane airplane(int id) {
+        return SimulationFixture.airplane(id, engine, config, AirplaneAction.LANDING, false);
+    }
+
+    /* Deadlines are acted on at the end of their bucket, so never early and at most one bucket late. */
+    private static void assertFiredWithinOneBucket(long deadline, Long firingTime) {
+        assertTrue("deadline " + deadline + " never fired", firingTime != null);
+        assertTrue(
+                "deadline " + deadline + " fired at " + firingTime,
+                firingTime > deadline && firingTime <= deadline + BUCKET_DURATION
+        );
+    }
+}
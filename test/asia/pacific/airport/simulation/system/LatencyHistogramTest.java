@@ -0,0 +1,81 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    @Test
+    public void valuesBelowTheSubBucketCountHaveTheirOwnBucket() {
+        for (long value = 0; value < 256; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestValueOf((int) value));
+        }
+    }
+
+    @Test
+    public void eachPowerOfTwoStartsANewRunOfHalfTheSubBuckets() {
+        assertEquals(256, LatencyHistogram.indexOf(256));
+        assertEquals(256, LatencyHistogram.indexOf(257));
+        assertEquals(383, LatencyHistogram.indexOf(511));
+        assertEquals(384, LatencyHistogram.indexOf(512));
+        assertEquals(511, LatencyHistogram.indexOf(1023));
+        assertEquals(512, LatencyHistogram.indexOf(1024));
+        assertEquals(257, LatencyHistogram.highestValueOf(256));
+        assertEquals(511, LatencyHistogram.highestValueOf(383));
+        assertEquals(515, LatencyHistogram.highestValueOf(384));
+    }
+
+    @Test
+    public void bucketsAreContiguousAndBoundEveryValue() {
+        int previousIndex = LatencyHistogram.indexOf(0);
+        for (long value = 1; value < 1 << 20; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue("bucket of " + value + " skips or goes back", index == previousIndex || index == previousIndex + 1);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    public void relativeErrorStaysUnderOnePercentUpToTheTrackableMaximum() {
+        for (int bit = 8; bit < 42; bit++) {
+            for (long value : new long[] {1L << bit, (1L << bit) + 1, (3L << bit) / 2, (1L << (bit + 1)) - 1}) {
+                long highestValue = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+                assertTrue(value + " reported as " + highestValue, highestValue - value < value / 100.0);
+            }
+        }
+        long maximum = LatencyHistogram.MAXIMUM_TRACKABLE_VALUE;
+        assertEquals(maximum, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(maximum)));
+    }
+
+    @Test
+    public void percentilesAreClampedToTheRecordedRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500, snapshot.getTotal());
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+        assertEquals(1000, snapshot.getValueAtPercentile(100));
+        long median = snapshot.getValueAtPercentile(50);
+        assertTrue("median " + median, median >= 500 && median < 505);
+    }
+
+    @Test
+    public void outOfRangeValuesAreRecordedAtTheBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.getMinimum());
+        assertEquals(LatencyHistogram.MAXIMUM_TRACKABLE_VALUE, snapshot.getMaximum());
+        assertEquals(LatencyHistogram.MAXIMUM_TRACKABLE_VALUE, snapshot.getValueAtPercentile(100));
+    }
+}
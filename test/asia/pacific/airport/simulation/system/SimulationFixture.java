@@ -0,0 +1,57 @@
+package asia.pacific.airport.simulation.system;
+
+import java.util.Properties;
+
+/*
+ * Builds simulation components for the unit tests. Components share an engine that never runs and
+ * logs nothing, and airplanes are created outside of any arrival process with their activity set.
+ */
+final class SimulationFixture {
+    private SimulationFixture() {}
+
+    static SimulationConfig config(Properties overrides) {
+        Properties properties = new Properties();
+        properties.setProperty(SimulationConfig.SIMULATION_SEED, "42");
+        properties.setProperty(SimulationConfig.LOG_LEVEL, LogLevel.OFF.name());
+        properties.putAll(overrides);
+        return new SimulationConfig(properties);
+    }
+
+    static SimulationEngine engine() {
+        return new SimulationEngine(
+                SimulationMode.VIRTUAL,
+                ThreadMode.PLATFORM,
+                0,
+                SimulationLogger.disabled()
+        );
+    }
+
+    static Airplane airplane(
+            int id,
+            SimulationEngine engine,
+            SimulationConfig config,
+            AirplaneAction action,
+            boolean isEmergency
+    ) {
+        return airplane(id, engine, config, AircraftType.narrowBody(config), action, isEmergency);
+    }
+
+    static Airplane airplane(
+            int id,
+            SimulationEngine engine,
+            SimulationConfig config,
+            AircraftType aircraftType,
+            AirplaneAction action,
+            boolean isEmergency
+    ) {
+        Airplane airplane = new Airplane(
+                id,
+                new AirplaneStateStore(null, null, null, null, engine, config, id),
+                aircraftType,
+                new SimulationRandom(42, SimulationJournal.disabled()),
+                isEmergency
+        );
+        airplane.setCurrentActivity(new AirplaneActivity(action, isEmergency, engine));
+        return airplane;
+    }
+}
@@ -0,0 +1,56 @@
+package asia.pacific.airport.simulation.system;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationTest {
+    // well past the 102 airplanes a 1_000_000 litre depot without resupply could serve
+    private static final int AIRPLANE_COUNT = 200;
+
+    @Test
+    public void defaultScenarioServesEveryAirplane() {
+        SimulationResult result = run(new Properties());
+
+        assertTrue(result.isCompleted());
+        assertEquals(AIRPLANE_COUNT, result.getAirplaneCount());
+        assertEquals(AIRPLANE_COUNT, result.getExpectedAirplaneCount());
+        assertEquals(0, result.getStalledRunCount());
+    }
+
+    @Test
+    public void finiteReserveWithoutResupplyStarvesAndStallsTheRun() {
+        Properties overrides = new Properties();
+        overrides.setProperty(SimulationConfig.FUEL_DEPOT_RESERVE, "1000000");
+        Simulation simulation = simulation(overrides);
+
+        SimulationResult result = simulation.run();
+
+        assertTrue(simulation.getFuelDepot().isStarved());
+        assertFalse(result.isCompleted());
+        assertEquals(1, result.getStalledRunCount());
+        assertEquals(AIRPLANE_COUNT, result.getExpectedAirplaneCount());
+    }
+
+    private static SimulationResult run(Properties overrides) {
+        return simulation(overrides).run();
+    }
+
+    private static Simulation simulation(Properties overrides) {
+        Properties properties = new Properties();
+        properties.setProperty(SimulationConfig.AIRPLANE_COUNT, Integer.toString(AIRPLANE_COUNT));
+        properties.putAll(overrides);
+        return new Simulation(
+                SimulationFixture.config(properties),
+                0,
+                SimulationLogger.disabled(),
+                SimulationJournal.disabled(),
+                MetricsRegistry.disabled(),
+                EventJournal.disabled()
+        );
+    }
+}